@@ -0,0 +1,87 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare the sequential and parallel resolution of arrays of alpha-2 codes, to find the size above which the parallel
+ * resolution is faster on a given machine. The result can be used to set the
+ * <code>org.girod.iso3166.parallelThreshold</code> system property.
+ *
+ * @since 0.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkResolverBenchmark {
+   @Param({"1024", "4096", "16384", "65536", "262144", "1048576"})
+   private int size;
+   private Country.Cache cache = null;
+   private String[] in = null;
+   private Country[] out = null;
+
+   @Setup
+   public void setUp() {
+      cache = Country.getCache();
+      List<Country> countries = cache.countries;
+      Random random = new Random(1);
+      in = new String[size];
+      for (int i = 0; i < size; i++) {
+         in[i] = countries.get(random.nextInt(countries.size())).getAlpha2();
+      }
+      out = new Country[size];
+   }
+
+   @Benchmark
+   public Country[] sequential() {
+      BulkResolver.resolveSequential(cache, CodeType.ALPHA2, in, out, 0, size);
+      return out;
+   }
+
+   @Benchmark
+   public Country[] parallel() {
+      BulkResolver.resolveParallel(cache, CodeType.ALPHA2, in, out);
+      return out;
+   }
+}
@@ -0,0 +1,114 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measure the construction of the countries cache. The cold benchmarks measure one construction in a new JVM, as it
+ * happens on the first use of the library, and are repeated over several forks. The warm benchmarks measure the
+ * construction after the JIT compilation.
+ *
+ * @since 0.3
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheBenchmark {
+
+   /**
+    * Construct the cache in a new JVM.
+    *
+    * @return the cache
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.SingleShotTime)
+   @Warmup(iterations = 0)
+   @Measurement(iterations = 1)
+   @Fork(10)
+   public Country.Cache coldConstruction() {
+      return new Country.Cache();
+   }
+
+   /**
+    * Construct the cache and all its indexes in a new JVM.
+    *
+    * @return the cache
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.SingleShotTime)
+   @Warmup(iterations = 0)
+   @Measurement(iterations = 1)
+   @Fork(10)
+   public Country.Cache coldConstructionWithIndexes() {
+      return buildIndexes(new Country.Cache());
+   }
+
+   /**
+    * Construct the cache after the JIT compilation.
+    *
+    * @return the cache
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @Warmup(iterations = 5, time = 1)
+   @Measurement(iterations = 5, time = 1)
+   @Fork(1)
+   public Country.Cache warmConstruction() {
+      return new Country.Cache();
+   }
+
+   /**
+    * Construct the cache and all its indexes after the JIT compilation.
+    *
+    * @return the cache
+    */
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @Warmup(iterations = 5, time = 1)
+   @Measurement(iterations = 5, time = 1)
+   @Fork(1)
+   public Country.Cache warmConstructionWithIndexes() {
+      return buildIndexes(new Country.Cache());
+   }
+
+   private static Country.Cache buildIndexes(Country.Cache cache) {
+      cache.getCountryByName();
+      cache.getCountryFromAlpha2("FR");
+      cache.getCountryFromAlpha3("FRA");
+      cache.getCountryFromNumeric(250);
+      cache.getNameIndex();
+      cache.getNameTrie();
+      cache.getTrigramIndex();
+      return cache;
+   }
+}
@@ -0,0 +1,107 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measure the throughput of the lookups performed by as many threads as there are processors.
+ *
+ * @since 0.3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class ConcurrentLookupBenchmark {
+   private static final int SIZE = LookupBenchmark.SIZE;
+   private final String[] alpha2 = new String[SIZE];
+   private final String[] alpha3 = new String[SIZE];
+   private final int[] numeric = new int[SIZE];
+   private final String[] names = new String[SIZE];
+
+   @Setup
+   public void setUp() {
+      List<Country> countries = Country.getCache().countries;
+      for (int i = 0; i < SIZE; i++) {
+         Country c = countries.get((i * 31) % countries.size());
+         alpha2[i] = c.getAlpha2();
+         alpha3[i] = c.getAlpha3();
+         numeric[i] = c.getNumericCode();
+         names[i] = c.getName();
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void alpha2(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromAlpha2(alpha2[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void alpha3(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromAlpha3(alpha3[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void numeric(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromNumeric(numeric[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void name(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromName(names[i]));
+      }
+   }
+}
@@ -0,0 +1,240 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measure the lookup methods of {@link Country}, for codes and names which exist and for codes and names which do
+ * not exist. Each invocation looks up {@link #SIZE} values, so that the branches are not predicted from one value.
+ *
+ * @since 0.3
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LookupBenchmark {
+   static final int SIZE = 256;
+   private final String[] alpha2 = new String[SIZE];
+   private final String[] alpha3 = new String[SIZE];
+   private final int[] numeric = new int[SIZE];
+   private final String[] numericString = new String[SIZE];
+   private final String[] names = new String[SIZE];
+   private final String[] normalizedNames = new String[SIZE];
+   private final String[] fuzzyNames = new String[SIZE];
+   private final String[] prefixes = new String[SIZE];
+   private final String[] missingAlpha2 = new String[SIZE];
+   private final String[] missingAlpha3 = new String[SIZE];
+   private final int[] missingNumeric = new int[SIZE];
+   private final String[] missingNames = new String[SIZE];
+   private Country country = null;
+
+   @Setup
+   public void setUp() {
+      List<Country> countries = Country.getCache().countries;
+      country = countries.get(0);
+      // the missing codes are user-assigned codes of ISO 3166-1, which are never assigned to a country, and which are
+      // not used by a custom country of the cache
+      List<String> unusedAlpha2 = new ArrayList<>();
+      List<String> unusedAlpha3 = new ArrayList<>();
+      List<Integer> unusedNumeric = new ArrayList<>();
+      for (char c = 'A'; c <= 'Z'; c++) {
+         String code = "Q" + c;
+         if (c >= 'M' && Country.getCountryFromAlpha2(code) == null) {
+            unusedAlpha2.add(code);
+         }
+         code = "X" + c;
+         if (Country.getCountryFromAlpha2(code) == null) {
+            unusedAlpha2.add(code);
+         }
+         code = "QQ" + c;
+         if (Country.getCountryFromAlpha3(code) == null) {
+            unusedAlpha3.add(code);
+         }
+         code = "XX" + c;
+         if (Country.getCountryFromAlpha3(code) == null) {
+            unusedAlpha3.add(code);
+         }
+      }
+      for (int code = 900; code < 1000; code++) {
+         if (Country.getCountryFromNumeric(code) == null) {
+            unusedNumeric.add(code);
+         }
+      }
+      for (int i = 0; i < SIZE; i++) {
+         Country c = countries.get((i * 31) % countries.size());
+         // copies of the strings, so that the lookups can not compare them by reference
+         alpha2[i] = new String(c.getAlpha2());
+         alpha3[i] = new String(c.getAlpha3());
+         numeric[i] = c.getNumericCode();
+         numericString[i] = c.getFormattedNumericCode();
+         names[i] = new String(c.getName());
+         normalizedNames[i] = c.getName().toUpperCase();
+         String name = c.getName();
+         fuzzyNames[i] = name.length() > 4 ? name.substring(0, 2) + name.substring(3) : name;
+         prefixes[i] = name.substring(0, Math.min(2, name.length()));
+         missingAlpha2[i] = unusedAlpha2.get(i % unusedAlpha2.size());
+         missingAlpha3[i] = unusedAlpha3.get(i % unusedAlpha3.size());
+         missingNumeric[i] = unusedNumeric.get(i % unusedNumeric.size());
+         missingNames[i] = "Unknown country " + i;
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void alpha2Hit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromAlpha2(alpha2[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void alpha2Miss(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromAlpha2(missingAlpha2[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void alpha3Hit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromAlpha3(alpha3[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void alpha3Miss(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromAlpha3(missingAlpha3[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void numericHit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromNumeric(numeric[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void numericMiss(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromNumeric(missingNumeric[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void numericStringHit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromNumeric(numericString[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void nameHit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromName(names[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void nameMiss(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromName(missingNames[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void normalizedNameHit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromNormalizedName(normalizedNames[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void normalizedNameMiss(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromNormalizedName(missingNames[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void fuzzyNameHit(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromFuzzyName(fuzzyNames[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void fuzzyNameMiss(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.getCountryFromFuzzyName(missingNames[i]));
+      }
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(SIZE)
+   public void prefix(Blackhole blackhole) {
+      for (int i = 0; i < SIZE; i++) {
+         blackhole.consume(Country.findByPrefix(prefixes[i], 10));
+      }
+   }
+
+   @Benchmark
+   public List<Country> listCountries() {
+      return country.listCountries();
+   }
+}
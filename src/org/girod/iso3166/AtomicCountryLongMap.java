@@ -0,0 +1,162 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A map from countries to long values which can be updated atomically by several threads, for example to count
+ * events per country. The values are stored in atomic arrays indexed by the country ordinals, and each value is
+ * padded to its own cache line, so that threads updating the values of different countries do not contend with each
+ * other. The countries without a value have a value of 0.
+ *
+ * <p>If many threads update the value of the same country, a {@link StripedCountryLongMap} scales better, at the cost
+ * of slower reads.</p>
+ *
+ * @since 0.3
+ */
+public class AtomicCountryLongMap {
+   /**
+    * The number of longs between two values, so that each value is on its own 64 bytes cache line.
+    */
+   private static final int STRIDE = 8;
+   /**
+    * The number of values in a chunk.
+    */
+   private static final int CHUNK_SIZE = 64;
+   private static final int CHUNK_SHIFT = 6;
+   /**
+    * The chunks of values. A chunk is never replaced once it has been created, so updates are never lost when the
+    * array of chunks grows.
+    */
+   private volatile AtomicLongArray[] chunks;
+
+   /**
+    * Create an empty map.
+    */
+   public AtomicCountryLongMap() {
+      chunks = new AtomicLongArray[(Country.getOrdinalCount() >>> CHUNK_SHIFT) + 1];
+      for (int i = 0; i < chunks.length; i++) {
+         chunks[i] = new AtomicLongArray(CHUNK_SIZE * STRIDE);
+      }
+   }
+
+   private AtomicLongArray getChunk(int ordinal) {
+      int index = ordinal >>> CHUNK_SHIFT;
+      AtomicLongArray[] current = chunks;
+      if (index < current.length) {
+         return current[index];
+      }
+      return createChunk(index);
+   }
+
+   private synchronized AtomicLongArray createChunk(int index) {
+      AtomicLongArray[] current = chunks;
+      if (index >= current.length) {
+         int length = current.length;
+         current = Arrays.copyOf(current, index + 1);
+         for (int i = length; i < current.length; i++) {
+            current[i] = new AtomicLongArray(CHUNK_SIZE * STRIDE);
+         }
+         chunks = current;
+      }
+      return current[index];
+   }
+
+   private static int slot(int ordinal) {
+      return (ordinal & (CHUNK_SIZE - 1)) * STRIDE;
+   }
+
+   /**
+    * Return the value associated with a country.
+    *
+    * @param country the country
+    * @return the value
+    */
+   public long get(Country country) {
+      int ordinal = Country.ordinalOf(country);
+      AtomicLongArray[] current = chunks;
+      int index = ordinal >>> CHUNK_SHIFT;
+      return ordinal >= 0 && index < current.length ? current[index].get(slot(ordinal)) : 0;
+   }
+
+   /**
+    * Set the value associated with a country.
+    *
+    * @param country the country
+    * @param value the value
+    */
+   public void set(Country country, long value) {
+      int ordinal = Country.requireOrdinal(country);
+      getChunk(ordinal).set(slot(ordinal), value);
+   }
+
+   /**
+    * Atomically add a value to the value associated with a country.
+    *
+    * @param country the country
+    * @param delta the value to add
+    * @return the new value
+    */
+   public long addAndGet(Country country, long delta) {
+      int ordinal = Country.requireOrdinal(country);
+      return getChunk(ordinal).addAndGet(slot(ordinal), delta);
+   }
+
+   /**
+    * Atomically increment the value associated with a country.
+    *
+    * @param country the country
+    * @return the new value
+    */
+   public long incrementAndGet(Country country) {
+      return addAndGet(country, 1);
+   }
+
+   /**
+    * Return a copy of the current values. The copy is not an atomic snapshot if the values are updated concurrently.
+    *
+    * @return the copy of the values
+    */
+   public CountryLongMap toCountryLongMap() {
+      CountryLongMap map = new CountryLongMap();
+      AtomicLongArray[] current = chunks;
+      for (int i = 0; i < current.length; i++) {
+         for (int j = 0; j < CHUNK_SIZE; j++) {
+            long value = current[i].get(j * STRIDE);
+            if (value != 0) {
+               Country country = Country.getCountryFromOrdinal((i << CHUNK_SHIFT) + j);
+               if (country != null) {
+                  map.put(country, value);
+               }
+            }
+         }
+      }
+      return map;
+   }
+}
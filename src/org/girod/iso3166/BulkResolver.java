@@ -0,0 +1,303 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.time.LocalDate;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Resolve arrays of codes to countries. The arrays are split between the threads of the common fork-join pool when
+ * they are larger than a threshold, which can be set with the <code>org.girod.iso3166.parallelThreshold</code> system
+ * property. All the codes of an array are resolved against the same cache, so the result is
+ * consistent even if custom countries are added concurrently.
+ *
+ * @since 0.3
+ */
+final class BulkResolver {
+   /**
+    * The name of the system property which contains the number of codes above which the codes are resolved in parallel.
+    */
+   static final String THRESHOLD_PROPERTY = "org.girod.iso3166.parallelThreshold";
+   /**
+    * The default number of codes above which the codes are resolved in parallel. The best value depends on the number
+    * of cores and on the type of the codes, and should be measured on the target machine with the
+    * <code>BulkResolverBenchmark</code> benchmark.
+    */
+   static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 15;
+   /**
+    * The number of codes above which the codes are resolved in parallel.
+    */
+   static final int PARALLEL_THRESHOLD = Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_PARALLEL_THRESHOLD);
+   /**
+    * The minimum number of codes resolved by one parallel task.
+    */
+   private static final int TASK_SIZE = 1 << 13;
+
+   private BulkResolver() {
+   }
+
+   /**
+    * Resolve an array of codes.
+    *
+    * @param type the type of the codes
+    * @param in the codes
+    * @param out the countries, or null for the codes which have no country
+    */
+   static void resolve(CodeType type, String[] in, Country[] out) {
+      checkLength(in.length, out);
+      Country.Cache cache = Country.getCache();
+      if (isParallel(in.length)) {
+         resolveParallel(cache, type, in, out);
+      } else {
+         resolveSequential(cache, type, in, out, 0, in.length);
+      }
+   }
+
+   /**
+    * Resolve an array of numeric codes.
+    *
+    * @param in the numeric codes
+    * @param out the countries, or null for the codes which have no country
+    */
+   static void resolve(int[] in, Country[] out) {
+      checkLength(in.length, out);
+      Country.Cache cache = Country.getCache();
+      if (isParallel(in.length)) {
+         ForkJoinPool.commonPool().invoke(new ResolveNumericTask(cache, in, out, 0, in.length));
+      } else {
+         resolve(cache, in, out, 0, in.length);
+      }
+   }
+
+   /**
+    * Resolve an array of codes at different dates. A code is first looked up in the historical countries valid at its
+    * date, then in the current countries whose code was already assigned at this date. A null date only looks up the
+    * current countries.
+    *
+    * @param type the type of the codes
+    * @param in the codes
+    * @param dates the dates of the codes
+    * @param out the array which will contain the countries
+    */
+   static void resolve(CodeType type, String[] in, LocalDate[] dates, Country[] out) {
+      checkLength(in.length, out);
+      if (dates.length < in.length) {
+         throw new IllegalArgumentException("The dates array length " + dates.length + " is smaller than the input array length " + in.length);
+      }
+      Country.Cache cache = Country.getCache();
+      HistoricalIndex index = HistoricalIndex.getIndex();
+      if (isParallel(in.length)) {
+         resolveParallel(cache, index, type, in, dates, out);
+      } else {
+         resolveSequential(cache, index, type, in, dates, out, 0, in.length);
+      }
+   }
+
+   private static void checkLength(int length, Country[] out) {
+      if (out.length < length) {
+         throw new IllegalArgumentException("The output array length " + out.length + " is smaller than the input array length " + length);
+      }
+   }
+
+   private static boolean isParallel(int length) {
+      return length >= PARALLEL_THRESHOLD && ForkJoinPool.getCommonPoolParallelism() > 1;
+   }
+
+   /**
+    * Resolve an array of codes in parallel.
+    *
+    * @param cache the cache
+    * @param type the type of the codes
+    * @param in the codes
+    * @param out the countries
+    */
+   static void resolveParallel(Country.Cache cache, CodeType type, String[] in, Country[] out) {
+      ForkJoinPool.commonPool().invoke(new ResolveTask(cache, type, in, out, 0, in.length));
+   }
+
+   /**
+    * Resolve an array of codes at different dates in parallel.
+    *
+    * @param cache the cache
+    * @param index the historical index
+    * @param type the type of the codes
+    * @param in the codes
+    * @param dates the dates of the codes
+    * @param out the countries
+    */
+   static void resolveParallel(Country.Cache cache, HistoricalIndex index, CodeType type, String[] in, LocalDate[] dates,
+      Country[] out) {
+      ForkJoinPool.commonPool().invoke(new ResolveDatedTask(cache, index, type, in, dates, out, 0, in.length));
+   }
+
+   /**
+    * Resolve a range of an array of codes in the current thread.
+    *
+    * @param cache the cache
+    * @param type the type of the codes
+    * @param in the codes
+    * @param out the countries
+    * @param from the first code
+    * @param to the last code (exclusive)
+    */
+   static void resolveSequential(Country.Cache cache, CodeType type, String[] in, Country[] out, int from, int to) {
+      switch (type) {
+         case NAME:
+            for (int i = from; i < to; i++) {
+               out[i] = cache.getCountryFromName(in[i]);
+            }
+            break;
+         case ALPHA2:
+            for (int i = from; i < to; i++) {
+               out[i] = cache.getCountryFromAlpha2(in[i]);
+            }
+            break;
+         case ALPHA3:
+            for (int i = from; i < to; i++) {
+               out[i] = cache.getCountryFromAlpha3(in[i]);
+            }
+            break;
+         case ISO31662:
+            for (int i = from; i < to; i++) {
+               out[i] = cache.getCountryFromISO31662(in[i]);
+            }
+            break;
+         default:
+            for (int i = from; i < to; i++) {
+               int numeric = Country.Cache.numericIndex(in[i]);
+               out[i] = numeric < 0 ? null : cache.getCountryFromNumeric(numeric);
+            }
+            break;
+      }
+   }
+
+   private static void resolve(Country.Cache cache, int[] in, Country[] out, int from, int to) {
+      for (int i = from; i < to; i++) {
+         out[i] = cache.getCountryFromNumeric(in[i]);
+      }
+   }
+
+   private static void resolveSequential(Country.Cache cache, HistoricalIndex index, CodeType type, String[] in,
+      LocalDate[] dates, Country[] out, int from, int to) {
+      for (int i = from; i < to; i++) {
+         LocalDate date = dates[i];
+         out[i] = date == null ? type.getCountry(cache, in[i]) : index.getCountry(cache, type, in[i], date.toEpochDay());
+      }
+   }
+
+   private static class ResolveTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+      private final Country.Cache cache;
+      private final CodeType type;
+      private final String[] in;
+      private final Country[] out;
+      private final int from;
+      private final int to;
+
+      private ResolveTask(Country.Cache cache, CodeType type, String[] in, Country[] out, int from, int to) {
+         this.cache = cache;
+         this.type = type;
+         this.in = in;
+         this.out = out;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= TASK_SIZE) {
+            resolveSequential(cache, type, in, out, from, to);
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ResolveTask(cache, type, in, out, from, middle), new ResolveTask(cache, type, in, out, middle, to));
+         }
+      }
+   }
+
+   private static class ResolveNumericTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+      private final Country.Cache cache;
+      private final int[] in;
+      private final Country[] out;
+      private final int from;
+      private final int to;
+
+      private ResolveNumericTask(Country.Cache cache, int[] in, Country[] out, int from, int to) {
+         this.cache = cache;
+         this.in = in;
+         this.out = out;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= TASK_SIZE) {
+            resolve(cache, in, out, from, to);
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ResolveNumericTask(cache, in, out, from, middle), new ResolveNumericTask(cache, in, out, middle, to));
+         }
+      }
+   }
+
+   private static class ResolveDatedTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+      private final Country.Cache cache;
+      private final HistoricalIndex index;
+      private final CodeType type;
+      private final String[] in;
+      private final LocalDate[] dates;
+      private final Country[] out;
+      private final int from;
+      private final int to;
+
+      private ResolveDatedTask(Country.Cache cache, HistoricalIndex index, CodeType type, String[] in, LocalDate[] dates,
+         Country[] out, int from, int to) {
+         this.cache = cache;
+         this.index = index;
+         this.type = type;
+         this.in = in;
+         this.dates = dates;
+         this.out = out;
+         this.from = from;
+         this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+         if (to - from <= TASK_SIZE) {
+            resolveSequential(cache, index, type, in, dates, out, from, to);
+         } else {
+            int middle = (from + to) >>> 1;
+            invokeAll(new ResolveDatedTask(cache, index, type, in, dates, out, from, middle),
+               new ResolveDatedTask(cache, index, type, in, dates, out, middle, to));
+         }
+      }
+   }
+}
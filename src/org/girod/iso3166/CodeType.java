@@ -0,0 +1,137 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+/**
+ * The representations of a country: its name, one of its ISO 3166-1 codes, or its ISO 3166-2 code.
+ *
+ * @since 0.3
+ */
+public enum CodeType {
+   /**
+    * The country name (or alternate name).
+    */
+   NAME {
+      @Override
+      Country getCountry(Country.Cache cache, String code) {
+         return cache.getCountryFromName(code);
+      }
+
+      @Override
+      int compare(Country country1, Country country2) {
+         return country1.getName().compareTo(country2.getName());
+      }
+   },
+   /**
+    * The alpha-2 code.
+    */
+   ALPHA2 {
+      @Override
+      Country getCountry(Country.Cache cache, String code) {
+         return cache.getCountryFromAlpha2(code);
+      }
+
+      @Override
+      int compare(Country country1, Country country2) {
+         int result = country1.getAlpha2().compareTo(country2.getAlpha2());
+         return result != 0 ? result : NAME.compare(country1, country2);
+      }
+   },
+   /**
+    * The alpha-3 code.
+    */
+   ALPHA3 {
+      @Override
+      Country getCountry(Country.Cache cache, String code) {
+         return cache.getCountryFromAlpha3(code);
+      }
+
+      @Override
+      int compare(Country country1, Country country2) {
+         int result = country1.getAlpha3().compareTo(country2.getAlpha3());
+         return result != 0 ? result : NAME.compare(country1, country2);
+      }
+   },
+   /**
+    * The 3 digits numeric code.
+    */
+   NUMERIC {
+      @Override
+      Country getCountry(Country.Cache cache, String code) {
+         int numeric = Country.Cache.numericIndex(code);
+         return numeric < 0 ? null : cache.getCountryFromNumeric(numeric);
+      }
+
+      @Override
+      int compare(Country country1, Country country2) {
+         int result = Integer.compare(country1.getNumericCode(), country2.getNumericCode());
+         return result != 0 ? result : NAME.compare(country1, country2);
+      }
+   },
+   /**
+    * The ISO 3166-2 code, made of the "ISO 3166-2:" prefix followed by the alpha-2 code.
+    */
+   ISO31662 {
+      @Override
+      Country getCountry(Country.Cache cache, String code) {
+         return cache.getCountryFromISO31662(code);
+      }
+
+      @Override
+      int compare(Country country1, Country country2) {
+         return ALPHA2.compare(country1, country2);
+      }
+   };
+
+   /**
+    * Return the country of a code in a cache.
+    *
+    * @param cache the cache
+    * @param code the code
+    * @return the country, or null if there is no country for this code
+    */
+   abstract Country getCountry(Country.Cache cache, String code);
+
+   /**
+    * Compare two countries by their code of this type. The countries which have the same code are compared by name.
+    *
+    * @param country1 the first country
+    * @param country2 the second country
+    * @return a negative value, 0, or a positive value if the first country is before, equal to, or after the second one
+    */
+   abstract int compare(Country country1, Country country2);
+
+   /**
+    * Return the country of a code of this type. Return null if there is no country for this code.
+    *
+    * @param code the code
+    * @return the country
+    */
+   public Country getCountry(String code) {
+      return getCountry(Country.getCache(), code);
+   }
+}
@@ -0,0 +1,360 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Check if codes are valid alpha-2, alpha-3 or numeric codes, without looking up the countries. The codes of the
+ * current countries are kept in bitmasks with one bit per possible alpha-2 code (26 x 26 bits), alpha-3 code
+ * (26 x 26 x 26 bits) or numeric code (1000 bits), so that a check is one bit test. The bitmasks are built from all the
+ * countries of the cache, as the codes tables of the cache, so that a code is valid exactly if it is found by the
+ * lookups, without building the codes or names indexes. The codes of custom countries which can not be indexed in the
+ * bitmasks are kept in sets, as they are kept in maps by the cache.
+ *
+ * <p>The bulk methods check a column of fixed-width ASCII codes and return a validity bitmap, the bit <code>i</code>
+ * of the bitmap being set if the code <code>i</code> is valid, that is the bit <code>i % 64</code> of the
+ * <code>i / 64</code> long. The bitmasks are created again when the countries cache changes, for example when a custom
+ * country is added or when the {@link CountryOverlay} is reloaded.</p>
+ *
+ * @since 0.3
+ */
+public final class CodeValidator {
+   private static final int LETTERS = 26;
+   private static volatile Masks MASKS = null;
+
+   private CodeValidator() {
+   }
+
+   /**
+    * Return the bitmasks of the current countries.
+    *
+    * @return the bitmasks
+    */
+   private static Masks getMasks() {
+      Country.Cache cache = Country.getCache();
+      Masks masks = MASKS;
+      if (masks == null || masks.cache != cache) {
+         masks = new Masks(cache);
+         MASKS = masks;
+      }
+      return masks;
+   }
+
+   /**
+    * The bitmasks of the codes of a countries cache.
+    */
+   private static final class Masks {
+      private final Country.Cache cache;
+      /**
+       * The valid alpha-2 codes by alpha-2 code index.
+       */
+      private final long[] alpha2 = new long[words(LETTERS * LETTERS)];
+      /**
+       * The valid alpha-3 codes by alpha-3 code index.
+       */
+      private final long[] alpha3 = new long[words(LETTERS * LETTERS * LETTERS)];
+      /**
+       * The valid numeric codes.
+       */
+      private final long[] numeric = new long[words(1000)];
+      /**
+       * The valid alpha-2 codes which are not made of two upper-case letters.
+       */
+      private final Set<String> otherAlpha2 = new HashSet<>();
+      /**
+       * The valid alpha-3 codes which are not made of three upper-case letters.
+       */
+      private final Set<String> otherAlpha3 = new HashSet<>();
+      /**
+       * The valid numeric codes which are not between 0 and 999.
+       */
+      private final Set<Integer> otherNumeric = new HashSet<>();
+
+      private Masks(Country.Cache cache) {
+         this.cache = cache;
+         Iterator<Country> it = cache.countries.iterator();
+         while (it.hasNext()) {
+            Country country = it.next();
+            int index = Country.Cache.alpha2Index(country.getAlpha2());
+            if (index >= 0) {
+               set(alpha2, index);
+            } else {
+               otherAlpha2.add(country.getAlpha2());
+            }
+            index = Country.Cache.alpha3Index(country.getAlpha3());
+            if (index >= 0) {
+               set(alpha3, index);
+            } else {
+               otherAlpha3.add(country.getAlpha3());
+            }
+            int code = country.getNumericCode();
+            if (code >= 0 && code < 1000) {
+               set(numeric, code);
+            } else {
+               otherNumeric.add(code);
+            }
+         }
+      }
+
+      private static void set(long[] mask, int index) {
+         mask[index >>> 6] |= 1L << index;
+      }
+   }
+
+   /**
+    * Return 1 if a code which can not be indexed in the bitmasks is in a set of valid codes, else 0.
+    *
+    * @param other the valid codes
+    * @param code the code
+    * @return the bit
+    */
+   private static long otherBit(Set<String> other, CharSequence code) {
+      return code == null || other.isEmpty() || !other.contains(code.toString()) ? 0L : 1L;
+   }
+
+   /**
+    * Return 1 if a fixed-width ASCII code which can not be indexed in the bitmasks is in a set of valid codes, else 0.
+    *
+    * @param other the valid codes
+    * @param codes the codes
+    * @param offset the offset of the code
+    * @param length the length of the code
+    * @return the bit
+    */
+   private static long otherBit(Set<String> other, byte[] codes, int offset, int length) {
+      return other.isEmpty() || !other.contains(new String(codes, offset, length, StandardCharsets.US_ASCII)) ? 0L : 1L;
+   }
+
+   /**
+    * Return the number of longs of a bitmap of a number of bits.
+    *
+    * @param count the number of bits
+    * @return the number of longs
+    */
+   private static int words(int count) {
+      return (count + 63) >>> 6;
+   }
+
+   /**
+    * Return 1 if the bit of an index is set in a mask, else 0. Return 0 for a negative index.
+    *
+    * @param mask the mask
+    * @param index the index
+    * @return the bit
+    */
+   private static long bit(long[] mask, int index) {
+      return index < 0 ? 0L : (mask[index >>> 6] >>> index) & 1L;
+   }
+
+   /**
+    * Return true if a code is the alpha-2 code of a country.
+    *
+    * @param alpha2 the code
+    * @return true if the code is valid
+    */
+   public static boolean isValidAlpha2(CharSequence alpha2) {
+      Masks masks = getMasks();
+      int index = Country.Cache.alpha2Index(alpha2);
+      return (index >= 0 ? bit(masks.alpha2, index) : otherBit(masks.otherAlpha2, alpha2)) != 0;
+   }
+
+   /**
+    * Return true if a code is the alpha-3 code of a country.
+    *
+    * @param alpha3 the code
+    * @return true if the code is valid
+    */
+   public static boolean isValidAlpha3(CharSequence alpha3) {
+      Masks masks = getMasks();
+      int index = Country.Cache.alpha3Index(alpha3);
+      return (index >= 0 ? bit(masks.alpha3, index) : otherBit(masks.otherAlpha3, alpha3)) != 0;
+   }
+
+   /**
+    * Return true if a 3 digits code is the numeric code of a country.
+    *
+    * @param numeric the code
+    * @return true if the code is valid
+    */
+   public static boolean isValidNumeric(CharSequence numeric) {
+      return bit(getMasks().numeric, Country.Cache.numericIndex(numeric)) != 0;
+   }
+
+   /**
+    * Return true if a value is the numeric code of a country.
+    *
+    * @param numeric the code
+    * @return true if the code is valid
+    */
+   public static boolean isValidNumeric(int numeric) {
+      Masks masks = getMasks();
+      if (numeric >= 0 && numeric < 1000) {
+         return bit(masks.numeric, numeric) != 0;
+      }
+      return !masks.otherNumeric.isEmpty() && masks.otherNumeric.contains(numeric);
+   }
+
+   /**
+    * Check a column of alpha-2 codes, each code being 2 ASCII bytes.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param count the number of codes
+    * @return the validity bitmap
+    */
+   public static long[] validateAlpha2(byte[] codes, int offset, int count) {
+      long[] bitmap = new long[words(count)];
+      validateAlpha2(codes, offset, count, bitmap);
+      return bitmap;
+   }
+
+   /**
+    * Check a column of alpha-2 codes, each code being 2 ASCII bytes. The first <code>(count + 63) / 64</code> longs of
+    * the bitmap are overwritten.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param count the number of codes
+    * @param bitmap the validity bitmap
+    * @return the number of invalid codes
+    */
+   public static int validateAlpha2(byte[] codes, int offset, int count, long[] bitmap) {
+      Masks masks = getMasks();
+      long[] mask = masks.alpha2;
+      int valid = 0;
+      long word = 0L;
+      for (int i = 0; i < count; i++) {
+         int o = offset + 2 * i;
+         int index = Country.Cache.letterIndex(codes[o], codes[o + 1]);
+         long bit = index >= 0 ? bit(mask, index) : otherBit(masks.otherAlpha2, codes, o, 2);
+         word |= bit << i;
+         valid += (int) bit;
+         if ((i & 63) == 63) {
+            bitmap[i >>> 6] = word;
+            word = 0L;
+         }
+      }
+      if ((count & 63) != 0) {
+         bitmap[count >>> 6] = word;
+      }
+      return count - valid;
+   }
+
+   /**
+    * Check a column of alpha-3 codes, each code being 3 ASCII bytes.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param count the number of codes
+    * @return the validity bitmap
+    */
+   public static long[] validateAlpha3(byte[] codes, int offset, int count) {
+      long[] bitmap = new long[words(count)];
+      validateAlpha3(codes, offset, count, bitmap);
+      return bitmap;
+   }
+
+   /**
+    * Check a column of alpha-3 codes, each code being 3 ASCII bytes. The first <code>(count + 63) / 64</code> longs of
+    * the bitmap are overwritten.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param count the number of codes
+    * @param bitmap the validity bitmap
+    * @return the number of invalid codes
+    */
+   public static int validateAlpha3(byte[] codes, int offset, int count, long[] bitmap) {
+      Masks masks = getMasks();
+      long[] mask = masks.alpha3;
+      int valid = 0;
+      long word = 0L;
+      for (int i = 0; i < count; i++) {
+         int o = offset + 3 * i;
+         int index = Country.Cache.letterIndex(codes[o], codes[o + 1], codes[o + 2]);
+         long bit = index >= 0 ? bit(mask, index) : otherBit(masks.otherAlpha3, codes, o, 3);
+         word |= bit << i;
+         valid += (int) bit;
+         if ((i & 63) == 63) {
+            bitmap[i >>> 6] = word;
+            word = 0L;
+         }
+      }
+      if ((count & 63) != 0) {
+         bitmap[count >>> 6] = word;
+      }
+      return count - valid;
+   }
+
+   /**
+    * Check a column of numeric codes, each code being 3 ASCII digits.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param count the number of codes
+    * @return the validity bitmap
+    */
+   public static long[] validateNumeric(byte[] codes, int offset, int count) {
+      long[] bitmap = new long[words(count)];
+      validateNumeric(codes, offset, count, bitmap);
+      return bitmap;
+   }
+
+   /**
+    * Check a column of numeric codes, each code being 3 ASCII digits. The first <code>(count + 63) / 64</code> longs of
+    * the bitmap are overwritten.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param count the number of codes
+    * @param bitmap the validity bitmap
+    * @return the number of invalid codes
+    */
+   public static int validateNumeric(byte[] codes, int offset, int count, long[] bitmap) {
+      long[] mask = getMasks().numeric;
+      int valid = 0;
+      long word = 0L;
+      for (int i = 0; i < count; i++) {
+         int o = offset + 3 * i;
+         long bit = bit(mask, Country.Cache.digitsIndex(codes[o], codes[o + 1], codes[o + 2]));
+         word |= bit << i;
+         valid += (int) bit;
+         if ((i & 63) == 63) {
+            bitmap[i >>> 6] = word;
+            word = 0L;
+         }
+      }
+      if ((count & 63) != 0) {
+         bitmap[count >>> 6] = word;
+      }
+      return count - valid;
+   }
+}
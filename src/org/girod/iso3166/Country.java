@@ -27,28 +27,87 @@ the project website at the project page on https://github.com/hervegirod/country
 package org.girod.iso3166;
 
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.PropertyResourceBundle;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Represent one ISO 3166-1 Country.
  *
- * @version 0.2
+ * @version 0.3
  */
 public class Country implements Comparable<Country>, Serializable {
-   private static Cache CACHE = null;
+   private static final long serialVersionUID = 1L;
+   /**
+    * The prefix of the ISO 3166-2 codes of the countries.
+    */
+   static final String ISO31662_PREFIX = "ISO 3166-2:";
+   private static final Object LOCK = new Object();
+   /**
+    * The lock held while the first cache is created. The overlay set in the system property is loaded while holding
+    * this lock but not LOCK, so only the lookups which wait for the first cache are blocked by its load.
+    */
+   private static final Object INIT_LOCK = new Object();
+   /**
+    * The countries by their ordinal.
+    */
+   private static volatile Country[] ORDINALS = new Country[0];
+   private static final AtomicInteger NEXT_ORDINAL = new AtomicInteger();
+   /**
+    * The number of countries of the dataset.
+    */
+   private static volatile int DATASET_SIZE = 0;
+   /**
+    * The countries of the dataset, the custom countries added to the cache, and the ordinals of the countries of the
+    * overlay which are not in the dataset by their numeric code. Guarded by LOCK.
+    */
+   private static List<Country> DATASET = Collections.emptyList();
+   /**
+    * The cache of the countries of the dataset only, which is the first created cache.
+    */
+   private static Cache DATASET_CACHE = null;
+   private static final List<Country> CUSTOMS = new ArrayList<>();
+   private static final Map<Integer, Integer> OVERLAY_ORDINALS = new HashMap<>();
    private final String name;
    private final String alpha2;
    private final String alpha3;
    private List<String> altNames = null;
    private final int numeric;
+   /**
+    * The country ordinal, or -1 if the country has not been added to the cache. The ordinal is set when the country is
+    * added to the cache.
+    */
+   private volatile int ordinal = -1;
+   /**
+    * The precomputed representations of the country, so that formatting a country does not allocate.
+    */
+   private final String formattedNumeric;
+   private final String iso31662;
+   private final byte[] nameBytes;
+   private final byte[] alpha2Bytes;
+   private final byte[] alpha3Bytes;
+   private final byte[] numericBytes;
+   private final byte[] iso31662Bytes;
 
    /**
     * Constructor.
@@ -63,7 +122,13 @@ public class Country implements Comparable<Country>, Serializable {
       this.alpha2 = alpha2;
       this.alpha3 = alpha3;
       this.numeric = numeric;
-      createCache();
+      this.formattedNumeric = formatNumeric(numeric);
+      this.iso31662 = ISO31662_PREFIX + alpha2;
+      this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      this.alpha2Bytes = alpha2.getBytes(StandardCharsets.UTF_8);
+      this.alpha3Bytes = alpha3.getBytes(StandardCharsets.UTF_8);
+      this.numericBytes = formattedNumeric.getBytes(StandardCharsets.UTF_8);
+      this.iso31662Bytes = iso31662.getBytes(StandardCharsets.UTF_8);
       addCountryToCache();
    }
 
@@ -88,24 +153,53 @@ public class Country implements Comparable<Country>, Serializable {
     * @param alpha2 the country alpha-2 code
     * @param alpha3 the country alpha-3 code
     * @param numeric numeric code as an int
-    * @param true if the Country lust be added to the cache
+    * @param addToCache true if the Country must be added to the cache. If false, the Country can be added later with
+    * the {@link #addCountries(Collection)} method
     */
-   Country(String name, List<String> altNames, String alpha2, String alpha3, int numeric, boolean addToCache) {
+   public Country(String name, List<String> altNames, String alpha2, String alpha3, int numeric, boolean addToCache) {
       this.name = name;
       this.alpha2 = alpha2;
       this.alpha3 = alpha3;
       this.numeric = numeric;
+      this.formattedNumeric = formatNumeric(numeric);
+      this.iso31662 = ISO31662_PREFIX + alpha2;
+      this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      this.alpha2Bytes = alpha2.getBytes(StandardCharsets.UTF_8);
+      this.alpha3Bytes = alpha3.getBytes(StandardCharsets.UTF_8);
+      this.numericBytes = formattedNumeric.getBytes(StandardCharsets.UTF_8);
+      this.iso31662Bytes = iso31662.getBytes(StandardCharsets.UTF_8);
       this.altNames = altNames;
       if (addToCache) {
-         createCache();
-         if (altNames == null) {
-            addCountryToCache();
-         } else {
-            addCountryToCache(altNames);
-         }
+         addCountryToCache();
       }
    }
 
+   /**
+    * Constructor for the countries of the dataset.
+    *
+    * @param name the country name
+    * @param altNames the alternate names
+    * @param alpha2 the country alpha-2 code
+    * @param alpha3 the country alpha-3 code
+    * @param numeric numeric code as an int
+    * @param ordinal the position of the country in the dataset
+    */
+   Country(String name, List<String> altNames, String alpha2, String alpha3, int numeric, int ordinal) {
+      this.name = name;
+      this.alpha2 = alpha2;
+      this.alpha3 = alpha3;
+      this.numeric = numeric;
+      this.formattedNumeric = formatNumeric(numeric);
+      this.iso31662 = ISO31662_PREFIX + alpha2;
+      this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+      this.alpha2Bytes = alpha2.getBytes(StandardCharsets.UTF_8);
+      this.alpha3Bytes = alpha3.getBytes(StandardCharsets.UTF_8);
+      this.numericBytes = formattedNumeric.getBytes(StandardCharsets.UTF_8);
+      this.iso31662Bytes = iso31662.getBytes(StandardCharsets.UTF_8);
+      this.altNames = altNames;
+      this.ordinal = ordinal;
+   }
+
    @Override
    public int hashCode() {
       int hash = 3;
@@ -131,7 +225,20 @@ public class Country implements Comparable<Country>, Serializable {
       return true;
    }
 
+   /**
+    * Without arguments, print the version of the library. With arguments, convert one column of a CSV or TSV file
+    * between the names and the codes of the countries. Run with <code>-help</code> to get the list of arguments.
+    *
+    * @param args the arguments
+    */
    public static void main(String[] args) {
+      if (args.length != 0) {
+         int status = CountryConverter.run(args);
+         if (status != 0) {
+            System.exit(status);
+         }
+         return;
+      }
       URL url = Country.class.getResource("country.properties");
       try {
          PropertyResourceBundle prb = new PropertyResourceBundle(url.openStream());
@@ -145,17 +252,25 @@ public class Country implements Comparable<Country>, Serializable {
    }
 
    /**
-    * Return the list of countries.
+    * Return the list of countries, sorted by name. Each country appears only once. The list is unmodifiable, and it is
+    * only created again when a custom country is added.
     *
     * @return the list of countries
     */
    public List<Country> listCountries() {
-      List<Country> list = new ArrayList<>();
-      Iterator<Country> it = CACHE.countryByName.values().iterator();
-      while (it.hasNext()) {
-         list.add(it.next());
-      }
-      return list;
+      return CountryRegistry.getDefault().getCountries();
+   }
+
+   /**
+    * Return the list of countries, sorted by name or by one of their codes. The countries which have the same code are
+    * sorted by name. Each country appears only once. The list is unmodifiable, and it is only created again when a
+    * custom country is added.
+    *
+    * @param order the order of the countries
+    * @return the list of countries
+    */
+   public static List<Country> getCountries(CodeType order) {
+      return CountryRegistry.getDefault().getCountries(order);
    }
 
    /**
@@ -165,8 +280,85 @@ public class Country implements Comparable<Country>, Serializable {
     * @return the country
     */
    public static Country getCountryFromName(String name) {
-      createCache();
-      return CACHE.countryByName.get(name);
+      return CountryRegistry.getDefault().getCountryFromName(name);
+   }
+
+   /**
+    * Return the country of a specified name, ignoring the case, the diacritics, the punctuation and the whitespaces.
+    * For example "cote d ivoire" or "  CÔTE D'IVOIRE" would both return the country of name "Côte d'Ivoire". The
+    * alternate names of the countries are also taken into account. Return null if there is no country for this name.
+    *
+    * @param name the country name
+    * @return the country
+    */
+   public static Country getCountryFromNormalizedName(CharSequence name) {
+      return CountryRegistry.getDefault().getCountryFromNormalizedName(name);
+   }
+
+   /**
+    * Return the countries whose name or alternate name starts with a prefix, ignoring the case, the diacritics, the
+    * punctuation and the whitespaces. The countries are sorted in the alphabetical order of the matching names, so a
+    * country whose name is equal to the prefix comes first. Each country is returned only once.
+    *
+    * @param prefix the prefix
+    * @param limit the maximum number of countries to return
+    * @return the countries
+    */
+   public static List<Country> findByPrefix(CharSequence prefix, int limit) {
+      return CountryRegistry.getDefault().findByPrefix(prefix, limit);
+   }
+
+   /**
+    * Return the country whose name or alternate name is the closest to a possibly misspelled name. The names are
+    * normalized as for the {@link #getCountryFromNormalizedName(CharSequence)} method, and the maximum edit distance
+    * between the normalized names is a quarter of the length of the name (with a minimum of 1). Return null if no
+    * country name is close enough.
+    *
+    * @param name the country name
+    * @return the match
+    */
+   public static FuzzyMatch getCountryFromFuzzyName(CharSequence name) {
+      return CountryRegistry.getDefault().getCountryFromFuzzyName(name);
+   }
+
+   /**
+    * Return the country whose name or alternate name is the closest to a possibly misspelled name. The names are
+    * normalized as for the {@link #getCountryFromNormalizedName(CharSequence)} method. Return null if no country name
+    * is within the maximum edit distance.
+    *
+    * @param name the country name
+    * @param maxDistance the maximum edit distance between the normalized names
+    * @return the match
+    */
+   public static FuzzyMatch getCountryFromFuzzyName(CharSequence name, int maxDistance) {
+      return CountryRegistry.getDefault().getCountryFromFuzzyName(name, maxDistance);
+   }
+
+   /**
+    * Return the country of a specified ordinal. Return null if there is no country for this ordinal. The ordinal of a
+    * country of an overlay which has been removed from the overlay still returns the last version of this country, so
+    * that the sets and maps which contain this country still iterate over it.
+    *
+    * @param ordinal the country ordinal
+    * @return the country
+    */
+   public static Country getCountryFromOrdinal(int ordinal) {
+      getCache();
+      Country[] countries = ORDINALS;
+      if (ordinal < 0 || ordinal >= countries.length) {
+         return null;
+      }
+      return countries[ordinal];
+   }
+
+   /**
+    * Return the number of ordinals used by the countries. All the ordinals are lower than this value.
+    *
+    * @return the number of ordinals
+    */
+   static int getOrdinalCount() {
+      getCache();
+      return NEXT_ORDINAL.get();
    }
 
    /**
@@ -176,8 +368,7 @@ public class Country implements Comparable<Country>, Serializable {
     * @return the country
     */
    public static Country getCountryFromAlpha2(String alpha2) {
-      createCache();
-      return CACHE.countryByAlpha2.get(alpha2);
+      return CountryRegistry.getDefault().getCountryFromAlpha2(alpha2);
    }
 
    /**
@@ -187,8 +378,79 @@ public class Country implements Comparable<Country>, Serializable {
     * @return the country
     */
    public static Country getCountryFromAlpha3(String alpha3) {
-      createCache();
-      return CACHE.countryByAlpha3.get(alpha3);
+      return CountryRegistry.getDefault().getCountryFromAlpha3(alpha3);
+   }
+
+   /**
+    * Return the country of a specified alpha-2 code. Return null if there is no country for this code.
+    *
+    * @param alpha2 the country alpha2 code
+    * @return the country
+    */
+   public static Country getCountryFromAlpha2(CharSequence alpha2) {
+      return CountryRegistry.getDefault().getCountryFromAlpha2(alpha2);
+   }
+
+   /**
+    * Return the country of an alpha-2 code encoded in ASCII in a byte array. Return null if there is no country for
+    * this code.
+    *
+    * @param bytes the byte array
+    * @param offset the offset of the code in the array
+    * @param length the length of the code
+    * @return the country
+    */
+   public static Country getCountryFromAlpha2(byte[] bytes, int offset, int length) {
+      return CountryRegistry.getDefault().getCountryFromAlpha2(bytes, offset, length);
+   }
+
+   /**
+    * Return the country of an alpha-2 code encoded in ASCII in a buffer. Return null if there is no country for
+    * this code. The position of the buffer is not modified.
+    *
+    * @param buffer the buffer
+    * @param position the position of the code in the buffer
+    * @param length the length of the code
+    * @return the country
+    */
+   public static Country getCountryFromAlpha2(ByteBuffer buffer, int position, int length) {
+      return CountryRegistry.getDefault().getCountryFromAlpha2(buffer, position, length);
+   }
+
+   /**
+    * Return the country of a specified alpha-3 code. Return null if there is no country for this code.
+    *
+    * @param alpha3 the country alpha3 code
+    * @return the country
+    */
+   public static Country getCountryFromAlpha3(CharSequence alpha3) {
+      return CountryRegistry.getDefault().getCountryFromAlpha3(alpha3);
+   }
+
+   /**
+    * Return the country of an alpha-3 code encoded in ASCII in a byte array. Return null if there is no country for
+    * this code.
+    *
+    * @param bytes the byte array
+    * @param offset the offset of the code in the array
+    * @param length the length of the code
+    * @return the country
+    */
+   public static Country getCountryFromAlpha3(byte[] bytes, int offset, int length) {
+      return CountryRegistry.getDefault().getCountryFromAlpha3(bytes, offset, length);
+   }
+
+   /**
+    * Return the country of an alpha-3 code encoded in ASCII in a buffer. Return null if there is no country for
+    * this code. The position of the buffer is not modified.
+    *
+    * @param buffer the buffer
+    * @param position the position of the code in the buffer
+    * @param length the length of the code
+    * @return the country
+    */
+   public static Country getCountryFromAlpha3(ByteBuffer buffer, int position, int length) {
+      return CountryRegistry.getDefault().getCountryFromAlpha3(buffer, position, length);
    }
 
    /**
@@ -198,8 +460,7 @@ public class Country implements Comparable<Country>, Serializable {
     * @return the country
     */
    public static Country getCountryFromNumeric(int numeric) {
-      createCache();
-      return CACHE.countryByNum.get(numeric);
+      return CountryRegistry.getDefault().getCountryFromNumeric(numeric);
    }
 
    /**
@@ -209,16 +470,215 @@ public class Country implements Comparable<Country>, Serializable {
     * @return the country
     */
    public static Country getCountryFromNumeric(String numeric) {
-      createCache();
-      if (numeric.length() != 3) {
-         return null;
+      return CountryRegistry.getDefault().getCountryFromNumeric(numeric);
+   }
+
+   /**
+    * Return the country of a specified numeric code. Return null if there is no country for this code.
+    *
+    * @param numeric the country numeric code as a 3 digits character sequence
+    * @return the country
+    */
+   public static Country getCountryFromNumeric(CharSequence numeric) {
+      return CountryRegistry.getDefault().getCountryFromNumeric(numeric);
+   }
+
+   /**
+    * Return the country of a 3 digits numeric code encoded in ASCII in a byte array. Return null if there is no country
+    * for this code.
+    *
+    * @param bytes the byte array
+    * @param offset the offset of the code in the array
+    * @param length the length of the code
+    * @return the country
+    */
+   public static Country getCountryFromNumeric(byte[] bytes, int offset, int length) {
+      return CountryRegistry.getDefault().getCountryFromNumeric(bytes, offset, length);
+   }
+
+   /**
+    * Return the country of a 3 digits numeric code encoded in ASCII in a buffer. Return null if there is no country for
+    * this code. The position of the buffer is not modified.
+    *
+    * @param buffer the buffer
+    * @param position the position of the code in the buffer
+    * @param length the length of the code
+    * @return the country
+    */
+   public static Country getCountryFromNumeric(ByteBuffer buffer, int position, int length) {
+      return CountryRegistry.getDefault().getCountryFromNumeric(buffer, position, length);
+   }
+
+   /**
+    * Resolve an array of country names. The result is the same as calling {@link #getCountryFromName(String)} for
+    * each name, but large arrays are resolved in parallel.
+    *
+    * @param in the names
+    * @param out the array which will contain the countries, or null for the names which have no country. Its length
+    * must be at least the length of the names array
+    */
+   public static void resolveNames(String[] in, Country[] out) {
+      BulkResolver.resolve(CodeType.NAME, in, out);
+   }
+
+   /**
+    * Resolve an array of alpha-2 codes. The result is the same as calling {@link #getCountryFromAlpha2(String)} for
+    * each code, but large arrays are resolved in parallel.
+    *
+    * @param in the codes
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveAlpha2(String[] in, Country[] out) {
+      BulkResolver.resolve(CodeType.ALPHA2, in, out);
+   }
+
+   /**
+    * Resolve an array of alpha-3 codes. The result is the same as calling {@link #getCountryFromAlpha3(String)} for
+    * each code, but large arrays are resolved in parallel.
+    *
+    * @param in the codes
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveAlpha3(String[] in, Country[] out) {
+      BulkResolver.resolve(CodeType.ALPHA3, in, out);
+   }
+
+   /**
+    * Resolve an array of 3 digits numeric codes. The result is the same as calling
+    * {@link #getCountryFromNumeric(String)} for each code, but large arrays are resolved in parallel.
+    *
+    * @param in the codes
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveNumeric(String[] in, Country[] out) {
+      BulkResolver.resolve(CodeType.NUMERIC, in, out);
+   }
+
+   /**
+    * Resolve an array of numeric codes. The result is the same as calling {@link #getCountryFromNumeric(int)} for
+    * each code, but large arrays are resolved in parallel.
+    *
+    * @param in the codes
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveNumeric(int[] in, Country[] out) {
+      BulkResolver.resolve(in, out);
+   }
+
+   /**
+    * Return the country of an alpha-2 code at a date. The ISO 3166-3 countries whose codes have been withdrawn are
+    * returned for the dates at which their codes were valid, for example "SU" returns the USSR for 1980. Else the
+    * current country of the code is returned if the code was already assigned at this date, for example "RS" returns
+    * null for 1990. The codes of the current countries whose assignment date is not known, which include the codes of
+    * the first edition of ISO 3166, are considered to be valid at any date. Return null if there is no country for this
+    * code at this date.
+    *
+    * @param alpha2 the country alpha-2 code
+    * @param date the date, or null for the current countries
+    * @return the country
+    */
+   public static Country getCountryFromAlpha2(String alpha2, LocalDate date) {
+      if (date == null) {
+         return getCountryFromAlpha2(alpha2);
       }
-      try {
-         int num = Integer.parseInt(numeric);
-         return getCountryFromNumeric(num);
-      } catch (NumberFormatException e) {
-         return null;
+      Country country = HistoricalIndex.getIndex().getCountryFromAlpha2(getCache(), alpha2, date.toEpochDay());
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA2.record(country);
       }
+      return country;
+   }
+
+   /**
+    * Return the country of an alpha-3 code at a date. The ISO 3166-3 countries whose codes have been withdrawn are
+    * returned for the dates at which their codes were valid, else the current country of the code is returned if the
+    * code was already assigned at this date. Return null if there is no country for this code at this date.
+    *
+    * @param alpha3 the country alpha-3 code
+    * @param date the date, or null for the current countries
+    * @return the country
+    * @see #getCountryFromAlpha2(String, LocalDate)
+    */
+   public static Country getCountryFromAlpha3(String alpha3, LocalDate date) {
+      if (date == null) {
+         return getCountryFromAlpha3(alpha3);
+      }
+      Country country = HistoricalIndex.getIndex().getCountryFromAlpha3(getCache(), alpha3, date.toEpochDay());
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA3.record(country);
+      }
+      return country;
+   }
+
+   /**
+    * Return the country of a numeric code at a date. The ISO 3166-3 countries whose codes have been withdrawn are
+    * returned for the dates at which their codes were valid, else the current country of the code is returned if the
+    * code was already assigned at this date. Return null if there is no country for this code at this date.
+    *
+    * @param numeric the country numeric code
+    * @param date the date, or null for the current countries
+    * @return the country
+    * @see #getCountryFromAlpha2(String, LocalDate)
+    */
+   public static Country getCountryFromNumeric(int numeric, LocalDate date) {
+      if (date == null) {
+         return getCountryFromNumeric(numeric);
+      }
+      Country country = HistoricalIndex.getIndex().getCountryFromNumeric(getCache(), numeric, date.toEpochDay());
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.NUMERIC.record(country);
+      }
+      return country;
+   }
+
+   /**
+    * Resolve an array of alpha-2 codes, each at its own date. The result is the same as calling
+    * {@link #getCountryFromAlpha2(String, LocalDate)} for each code.
+    *
+    * @param in the codes
+    * @param dates the dates of the codes, which can contain null values for the current countries
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveAlpha2(String[] in, LocalDate[] dates, Country[] out) {
+      BulkResolver.resolve(CodeType.ALPHA2, in, dates, out);
+   }
+
+   /**
+    * Resolve an array of alpha-3 codes, each at its own date. The result is the same as calling
+    * {@link #getCountryFromAlpha3(String, LocalDate)} for each code.
+    *
+    * @param in the codes
+    * @param dates the dates of the codes, which can contain null values for the current countries
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveAlpha3(String[] in, LocalDate[] dates, Country[] out) {
+      BulkResolver.resolve(CodeType.ALPHA3, in, dates, out);
+   }
+
+   /**
+    * Resolve an array of numeric codes, each at its own date.
+    *
+    * @param in the numeric codes as 3 digits Strings
+    * @param dates the dates of the codes, which can contain null values for the current countries
+    * @param out the array which will contain the countries, or null for the codes which have no country. Its length
+    * must be at least the length of the codes array
+    */
+   public static void resolveNumeric(String[] in, LocalDate[] dates, Country[] out) {
+      BulkResolver.resolve(CodeType.NUMERIC, in, dates, out);
+   }
+
+   /**
+    * Return the ISO 3166-3 countries whose codes have been withdrawn, in the order of the historical XML file.
+    *
+    * @return the historical countries
+    */
+   public static List<Country> getHistoricalCountries() {
+      return Collections.unmodifiableList(HistoricalIndex.getIndex().getCountries());
    }
 
    /**
@@ -268,7 +728,7 @@ public class Country implements Comparable<Country>, Serializable {
    }
 
    /**
-    * Return the country numeric code as an int.
+    * Return the country numeric code as an int. Return -1 for the historical countries which had no numeric code.
     *
     * @return the country numeric code
     */
@@ -277,11 +737,69 @@ public class Country implements Comparable<Country>, Serializable {
    }
 
    /**
-    * Return the country numeric code as a 3 digit String.
+    * Return the country ordinal. The ordinals are small integers which identify the countries: the countries of the
+    * dataset have the ordinals from 0 to the number of countries in the dataset minus one, in the order of the
+    * dataset, and the custom countries have the next ordinals, in the order in which they are added to the cache.
+    * Return -1 if the country has not been added to the cache, for example for a country created with the
+    * <code>addToCache</code> argument set to false, or for a historical country.
+    *
+    * @return the country ordinal
+    */
+   public int getOrdinal() {
+      return ordinal;
+   }
+
+   /**
+    * Return the ordinal of a country or of the country of the cache which is equal to it. A country which has not been
+    * added to the cache, for example a deserialized copy of a custom country, has the ordinal of the country of the
+    * cache which has the same name, consistently with {@link #equals(Object)}. Return -1 if the country is null or if
+    * there is no such country in the cache.
+    *
+    * @param country the country
+    * @return the ordinal
+    */
+   static int ordinalOf(Country country) {
+      if (country == null) {
+         return -1;
+      }
+      int ordinal = country.ordinal;
+      if (ordinal >= 0) {
+         return ordinal;
+      }
+      Country canonical = getCache().getCountryFromName(country.name);
+      return canonical != null && canonical.name.equals(country.name) ? canonical.ordinal : -1;
+   }
+
+   /**
+    * Return the ordinal of a country, as for {@link #ordinalOf(Country)}.
+    *
+    * @param country the country
+    * @return the ordinal
+    * @throws IllegalArgumentException if there is no country equal to this country in the cache
+    */
+   static int requireOrdinal(Country country) {
+      Objects.requireNonNull(country, "The country is null");
+      int ordinal = ordinalOf(country);
+      if (ordinal < 0) {
+         throw new IllegalArgumentException(country.name + " has not been added to the cache");
+      }
+      return ordinal;
+   }
+
+   /**
+    * Return the country numeric code as a 3 digit String. Return an empty String for the historical countries which
+    * had no numeric code.
     *
     * @return the country numeric code
     */
    public String getFormattedNumericCode() {
+      return formattedNumeric;
+   }
+
+   private static String formatNumeric(int numeric) {
+      if (numeric < 0) {
+         return "";
+      }
       String s = Integer.toString(numeric);
       if (s.length() < 3) {
          s = "00".substring(0, 3 - s.length()) + s;
@@ -295,21 +813,305 @@ public class Country implements Comparable<Country>, Serializable {
     * @return the country ISO 3166-2 code
     */
    public String getISO31662() {
-      return "ISO 3166-2:" + alpha2;
+      return iso31662;
    }
 
-   private static void createCache() {
-      if (CACHE == null) {
-         CACHE = new Cache();
+   /**
+    * Return the ISO 3166-2 subdivisions of the country. Return an empty list if the subdivisions of the country are not
+    * known.
+    *
+    * @return the subdivisions
+    */
+   public List<Subdivision> getSubdivisions() {
+      return Subdivision.getSubdivisions(this);
+   }
+
+   /**
+    * Return the name or one of the codes of the country. The numeric code is returned as a 3 digits String.
+    *
+    * @param type the type of the code
+    * @return the code
+    */
+   public String getCode(CodeType type) {
+      switch (type) {
+         case NAME:
+            return name;
+         case ALPHA2:
+            return alpha2;
+         case ALPHA3:
+            return alpha3;
+         case ISO31662:
+            return iso31662;
+         default:
+            return formattedNumeric;
+      }
+   }
+
+   /**
+    * Return the name or one of the codes of the country encoded in UTF-8. The returned array must not be modified.
+    *
+    * @param type the type of the code
+    * @return the encoded code
+    */
+   byte[] getBytes(CodeType type) {
+      switch (type) {
+         case NAME:
+            return nameBytes;
+         case ALPHA2:
+            return alpha2Bytes;
+         case ALPHA3:
+            return alpha3Bytes;
+         case ISO31662:
+            return iso31662Bytes;
+         default:
+            return numericBytes;
+      }
+   }
+
+   /**
+    * Append the name or one of the codes of the country to a StringBuilder. The numeric code is appended as 3 digits.
+    *
+    * @param builder the StringBuilder
+    * @param type the type of the code
+    * @return the StringBuilder
+    */
+   public StringBuilder appendTo(StringBuilder builder, CodeType type) {
+      return builder.append(getCode(type));
+   }
+
+   /**
+    * Write the name or one of the codes of the country encoded in UTF-8 to a buffer, at the position of the buffer. The
+    * codes are written in ASCII, and the numeric code is written as 3 digits.
+    *
+    * @param buffer the buffer
+    * @param type the type of the code
+    * @return the number of written bytes
+    * @throws java.nio.BufferOverflowException if there is not enough space in the buffer
+    */
+   public int writeTo(ByteBuffer buffer, CodeType type) {
+      byte[] bytes = getBytes(type);
+      buffer.put(bytes);
+      return bytes.length;
+   }
+
+   /**
+    * Return the current cache of the default registry, creating it on the first call. The cache is an immutable
+    * snapshot, so once it has been published the lookups only perform a volatile read.
+    *
+    * @return the cache
+    */
+   static Cache getCache() {
+      return CountryRegistry.getDefault().getCache();
+   }
+
+   /**
+    * Create the cache of the default registry if it has not already been created.
+    *
+    * @return the cache
+    */
+   static Cache createCache() {
+      CountryRegistry registry = CountryRegistry.getDefault();
+      Cache cache = registry.cache;
+      if (cache == null) {
+         synchronized (INIT_LOCK) {
+            cache = registry.cache;
+            if (cache == null) {
+               long start = System.nanoTime();
+               cache = new Cache();
+               synchronized (LOCK) {
+                  ORDINALS = cache.countries.toArray(new Country[cache.countries.size()]);
+                  NEXT_ORDINAL.set(cache.countries.size());
+                  DATASET_SIZE = cache.countries.size();
+                  DATASET = cache.countries;
+                  DATASET_CACHE = cache;
+               }
+               // the overlay set in the system property is loaded outside of LOCK, and applied before the first cache
+               // is published
+               List<Country> overlay = CountryOverlay.watchFromProperty();
+               if (overlay != null) {
+                  List<Country> list;
+                  synchronized (LOCK) {
+                     list = getOverlayCountries(overlay);
+                  }
+                  cache = new Cache(list, DATASET_SIZE);
+               }
+               synchronized (LOCK) {
+                  if (overlay != null) {
+                     publishOrdinals(cache);
+                  }
+                  registry.cache = cache;
+               }
+               if (CountryMetrics.ENABLED) {
+                  CountryMetrics.getInstance().cacheInitialized(System.nanoTime() - start, cache.countries.size());
+               }
+            }
+         }
+      }
+      return cache;
+   }
+
+   /**
+    * Return the cache of the countries of the dataset, without the overlay and the custom countries.
+    *
+    * @return the cache
+    */
+   static Cache getDatasetCache() {
+      getCache();
+      return DATASET_CACHE;
+   }
+
+   /**
+    * Give their ordinals to custom countries which are added to the cache. The countries which already have an ordinal
+    * keep it. Must be called while holding LOCK.
+    *
+    * @param countries the countries
+    */
+   private static void registerOrdinals(Collection<Country> countries) {
+      Country[] ordinals = Arrays.copyOf(ORDINALS, Math.max(ORDINALS.length, NEXT_ORDINAL.get() + countries.size()));
+      Iterator<Country> it = countries.iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         if (country.ordinal < 0) {
+            country.ordinal = NEXT_ORDINAL.getAndIncrement();
+            ordinals[country.ordinal] = country;
+         }
       }
+      ORDINALS = ordinals;
    }
 
    private void addCountryToCache() {
-      CACHE.addCountryToCache(this);
+      addCountries(Collections.singletonList(this));
    }
 
-   private void addCountryToCache(List<String> altNames) {
-      CACHE.addCountryToCache(this, altNames);
+   /**
+    * Add a list of custom countries to the cache. The countries are all added at once: a new cache is created with the
+    * added countries and replaces the current one, so concurrent lookups never block and never see a partially updated
+    * cache. Note that the countries to add should have been created with the <code>addToCache</code> argument set to false.
+    * The countries receive their ordinals when they are added.
+    *
+    * <p>The indexes of the new cache which were already built in the current cache are built before the new cache is
+    * published, so the lookups which were used before never block on their rebuild. The other indexes are still built
+    * on their first use.</p>
+    *
+    * @param countries the countries
+    */
+   public static void addCountries(Collection<Country> countries) {
+      CountryRegistry registry = CountryRegistry.getDefault();
+      Cache current = registry.getCache();
+      while (true) {
+         Cache cache = new Cache(current, countries);
+         cache.buildIndexes(current);
+         synchronized (LOCK) {
+            if (registry.cache == current) {
+               registerOrdinals(countries);
+               CUSTOMS.addAll(countries);
+               registry.cache = cache;
+               break;
+            }
+            // the cache has been replaced while the indexes were built
+            current = registry.cache;
+         }
+      }
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.getInstance().countriesRegistered(countries.size());
+      }
+   }
+
+   /**
+    * Replace the overlay countries. A country of the overlay replaces the country of the dataset which has the same
+    * numeric code and takes its ordinal, and the other countries of the overlay are added after the countries of the
+    * dataset. The new cache is created and all its indexes are built outside of the lock before it replaces the current
+    * one, so the concurrent lookups and additions of countries never block on the load of the overlay, and never see a
+    * partially built cache.
+    *
+    * @param overlay the overlay countries, which can be empty to remove the overlay
+    */
+   static void applyOverlay(List<Country> overlay) {
+      CountryRegistry registry = CountryRegistry.getDefault();
+      registry.getCache();
+      while (true) {
+         Cache current;
+         List<Country> list;
+         synchronized (LOCK) {
+            current = registry.cache;
+            list = getOverlayCountries(overlay);
+         }
+         Cache cache = new Cache(list, DATASET_SIZE);
+         cache.buildIndexes();
+         synchronized (LOCK) {
+            if (registry.cache == current) {
+               publishOrdinals(cache);
+               registry.cache = cache;
+               return;
+            }
+            // the cache has been replaced while the indexes were built
+         }
+      }
+   }
+
+   /**
+    * Return the countries of the dataset patched by an overlay, followed by the custom countries. Must be called while
+    * holding LOCK.
+    *
+    * @param overlay the overlay countries
+    * @return the countries
+    */
+   private static List<Country> getOverlayCountries(List<Country> overlay) {
+      Map<Integer, Integer> datasetOrdinals = new HashMap<>();
+      Iterator<Country> it = DATASET.iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         datasetOrdinals.put(country.numeric, country.ordinal);
+      }
+      Country[] replaced = DATASET.toArray(new Country[DATASET.size()]);
+      List<Country> added = new ArrayList<>();
+      it = overlay.iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         Integer ordinal = datasetOrdinals.get(country.numeric);
+         if (ordinal != null) {
+            replaced[ordinal] = country.withOrdinal(ordinal);
+         } else {
+            ordinal = OVERLAY_ORDINALS.get(country.numeric);
+            if (ordinal == null) {
+               ordinal = NEXT_ORDINAL.getAndIncrement();
+               OVERLAY_ORDINALS.put(country.numeric, ordinal);
+            }
+            added.add(country.withOrdinal(ordinal));
+         }
+      }
+      List<Country> list = new ArrayList<>(replaced.length + added.size() + CUSTOMS.size());
+      list.addAll(Arrays.asList(replaced));
+      list.addAll(added);
+      list.addAll(CUSTOMS);
+      return list;
+   }
+
+   /**
+    * Update the countries by their ordinal for a cache which contains an overlay. Must be called while holding LOCK.
+    *
+    * @param cache the cache
+    */
+   private static void publishOrdinals(Cache cache) {
+      // the ordinals of the countries of a previous overlay which are not in this overlay keep their last country, as
+      // they can still be in sets or maps indexed by ordinal
+      Country[] ordinals = Arrays.copyOf(ORDINALS, Math.max(ORDINALS.length, NEXT_ORDINAL.get()));
+      Iterator<Country> it = cache.countries.iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         ordinals[country.ordinal] = country;
+      }
+      ORDINALS = ordinals;
+   }
+
+   /**
+    * Return a copy of this country with another ordinal.
+    *
+    * @param ordinal the ordinal
+    * @return the copy
+    */
+   private Country withOrdinal(int ordinal) {
+      return new Country(name, altNames, alpha2, alpha3, numeric, ordinal);
    }
 
    @Override
@@ -317,34 +1119,816 @@ public class Country implements Comparable<Country>, Serializable {
       return name.compareTo(o.name);
    }
 
+   /**
+    * Serialize the country through a {@link SerializationProxy}.
+    *
+    * @return the proxy
+    */
+   private Object writeReplace() {
+      return new SerializationProxy(this);
+   }
+
+   private void readObject(ObjectInputStream in) throws InvalidObjectException {
+      throw new InvalidObjectException("A Country must be deserialized through its serialization proxy");
+   }
+
+   /**
+    * The serialized form of a Country. A country which is the one found in the cache for its numeric code, and whose
+    * numeric code is between 0 and 999, is written as this numeric code only, and is deserialized as the country of the
+    * cache, so that a deserialized country is the same instance as the original one. The other countries are written
+    * with all their fields, and are deserialized as the country of the cache which has the same name and codes if there
+    * is one, else as a new Country which is not added to the cache and has no ordinal.
+    */
+   private static final class SerializationProxy implements Serializable {
+      private static final long serialVersionUID = 1L;
+      private static final byte BY_NUMERIC = 0;
+      private static final byte FULL = 1;
+      private transient Country country;
+
+      private SerializationProxy(Country country) {
+         this.country = country;
+      }
+
+      private void writeObject(ObjectOutputStream out) throws IOException {
+         int numeric = country.numeric;
+         if (numeric >= 0 && numeric < Cache.NUMERIC_CODES && getCache().getCountryFromNumeric(numeric) == country) {
+            out.writeByte(BY_NUMERIC);
+            out.writeShort(country.numeric);
+         } else {
+            out.writeByte(FULL);
+            out.writeUTF(country.name);
+            out.writeUTF(country.alpha2);
+            out.writeUTF(country.alpha3);
+            out.writeInt(country.numeric);
+            List<String> altNames = country.altNames;
+            out.writeShort(altNames == null ? 0 : altNames.size());
+            if (altNames != null) {
+               Iterator<String> it = altNames.iterator();
+               while (it.hasNext()) {
+                  out.writeUTF(it.next());
+               }
+            }
+         }
+      }
+
+      private void readObject(ObjectInputStream in) throws IOException {
+         byte kind = in.readByte();
+         if (kind == BY_NUMERIC) {
+            int numeric = in.readShort();
+            country = getCache().getCountryFromNumeric(numeric);
+            if (country == null) {
+               throw new InvalidObjectException("No country for the numeric code " + numeric);
+            }
+         } else if (kind == FULL) {
+            String name = in.readUTF();
+            String alpha2 = in.readUTF();
+            String alpha3 = in.readUTF();
+            int numeric = in.readInt();
+            int count = in.readShort();
+            List<String> altNames = null;
+            if (count > 0) {
+               altNames = new ArrayList<>(count);
+               for (int i = 0; i < count; i++) {
+                  altNames.add(in.readUTF());
+               }
+            }
+            Country existing = getCache().getCountryFromName(name);
+            if (existing != null && existing.numeric == numeric && existing.alpha2.equals(alpha2)
+               && existing.alpha3.equals(alpha3)) {
+               country = existing;
+            } else {
+               country = new Country(name, altNames, alpha2, alpha3, numeric, false);
+            }
+         } else {
+            throw new InvalidObjectException("Unknown serialized form " + kind);
+         }
+      }
+
+      private Object readResolve() {
+         return country;
+      }
+   }
+
+   /**
+    * The countries cache. A Cache is never modified after its construction: adding a Country creates a new Cache which
+    * replaces the previous one.
+    */
    static class Cache {
-      final Map<String, Country> countryByName = new HashMap<>();
-      final Map<String, Country> countryByAlpha2 = new HashMap<>();
-      final Map<String, Country> countryByAlpha3 = new HashMap<>();
-      final Map<Integer, Country> countryByNum = new HashMap<>();
+      private static final int LETTERS = 26;
+      private static final int NUMERIC_CODES = 1000;
+      /**
+       * The countries of the cache, in the order they were added. If several countries have the same code or name, the
+       * last one has priority.
+       */
+      final List<Country> countries;
+      /**
+       * The countries of the dataset, patched by the overlay, by ordinal. This list is shared by the caches created by
+       * adding custom countries, so it is only replaced when the overlay is reloaded.
+       */
+      final List<Country> dataset;
+      private volatile Map<String, Country> countryByName = null;
+      private volatile CodeTable alpha2Codes = null;
+      private volatile CodeTable alpha3Codes = null;
+      private volatile NumericTable numericCodes = null;
+      private volatile NameIndex<Country> nameIndex = null;
+      private volatile NameTrie nameTrie = null;
+      private volatile TrigramIndex trigramIndex = null;
+      /**
+       * The sorted views of the countries, by CodeType ordinal.
+       */
+      private final AtomicReferenceArray<List<Country>> sortedViews = new AtomicReferenceArray<>(CodeType.values().length);
 
-      private Cache() {
-         parseSpec();
+      Cache() {
+         countries = Collections.unmodifiableList(loadCountries());
+         dataset = countries;
       }
 
-      private void parseSpec() {
-         CountryParser parser = new CountryParser(this);
-         parser.parseSpec();
+      /**
+       * Create the cache of the added countries of a derived registry.
+       *
+       * @param countries the countries
+       */
+      Cache(List<Country> countries) {
+         this.countries = countries;
+         dataset = Collections.emptyList();
       }
 
-      private void addCountryToCache(Country country) {
-         countryByName.put(country.name, country);
-         countryByAlpha2.put(country.alpha2, country);
-         countryByAlpha3.put(country.alpha3, country);
-         countryByNum.put(country.numeric, country);
+      private Cache(List<Country> countries, int datasetSize) {
+         this.countries = Collections.unmodifiableList(countries);
+         dataset = this.countries.subList(0, datasetSize);
+      }
+
+      private Cache(Cache previous, Collection<Country> added) {
+         List<Country> list = new ArrayList<>(previous.countries.size() + added.size());
+         list.addAll(previous.countries);
+         list.addAll(added);
+         countries = Collections.unmodifiableList(list);
+         dataset = previous.dataset;
+      }
+
+      /**
+       * Build all the indexes of the cache.
+       */
+      private void buildIndexes() {
+         getCountryByName();
+         getAlpha2Codes();
+         getAlpha3Codes();
+         getNumericCodes();
+         getNameIndex();
+         getNameTrie();
+         getTrigramIndex();
+      }
+
+      /**
+       * Record the time used to build an index in the metrics.
+       *
+       * @param start the start of the build, as returned by {@link System#nanoTime()}
+       */
+      private static void indexBuilt(long start) {
+         if (CountryMetrics.ENABLED) {
+            CountryMetrics.getInstance().indexBuilt(System.nanoTime() - start);
+         }
       }
 
-      private void addCountryToCache(Country country, List<String> altNames) {
-         addCountryToCache(country);
-         Iterator<String> it = altNames.iterator();
-         while (it.hasNext()) {
-            String altName = it.next();
-            countryByName.put(altName, country);
+      /**
+       * Build the indexes of the cache which have already been built in another cache.
+       *
+       * @param previous the other cache
+       */
+      private void buildIndexes(Cache previous) {
+         if (previous.countryByName != null) {
+            getCountryByName();
+         }
+         if (previous.alpha2Codes != null) {
+            getAlpha2Codes();
+         }
+         if (previous.alpha3Codes != null) {
+            getAlpha3Codes();
+         }
+         if (previous.numericCodes != null) {
+            getNumericCodes();
+         }
+         if (previous.nameIndex != null) {
+            getNameIndex();
+         }
+         if (previous.nameTrie != null) {
+            getNameTrie();
+         }
+         if (previous.trigramIndex != null) {
+            getTrigramIndex();
+         }
+         CodeType[] orders = CodeType.values();
+         for (int i = 0; i < orders.length; i++) {
+            if (previous.sortedViews.get(i) != null) {
+               getSortedView(orders[i]);
+            }
+         }
+      }
+
+      /**
+       * Load the countries of the dataset. The countries are read from the binary snapshot created at build time if it
+       * exists, else they are parsed from the XML file.
+       *
+       * @return the countries
+       */
+      private static List<Country> loadCountries() {
+         List<Country> countries = CountrySnapshot.readSnapshot();
+         if (countries == null) {
+            CountryParser parser = new CountryParser();
+            countries = parser.parseSpec();
+         }
+         return countries;
+      }
+
+      /**
+       * Return the countries by their name or alternate name. The map is created on the first call.
+       *
+       * @return the countries by their name
+       */
+      Map<String, Country> getCountryByName() {
+         Map<String, Country> map = countryByName;
+         if (map == null) {
+            synchronized (this) {
+               map = countryByName;
+               if (map == null) {
+                  long start = System.nanoTime();
+                  map = new HashMap<>();
+                  Iterator<Country> it = countries.iterator();
+                  while (it.hasNext()) {
+                     Country country = it.next();
+                     map.put(country.name, country);
+                     if (country.altNames != null) {
+                        Iterator<String> it2 = country.altNames.iterator();
+                        while (it2.hasNext()) {
+                           map.put(it2.next(), country);
+                        }
+                     }
+                  }
+                  map = Collections.unmodifiableMap(map);
+                  countryByName = map;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return map;
+      }
+
+      /**
+       * Return the table of the countries by their alpha-2 code. The table is created on the first call.
+       *
+       * @return the table
+       */
+      private CodeTable getAlpha2Codes() {
+         CodeTable codes = alpha2Codes;
+         if (codes == null) {
+            synchronized (this) {
+               codes = alpha2Codes;
+               if (codes == null) {
+                  long start = System.nanoTime();
+                  codes = new CodeTable(LETTERS * LETTERS);
+                  Iterator<Country> it = countries.iterator();
+                  while (it.hasNext()) {
+                     Country country = it.next();
+                     codes.add(alpha2Index(country.alpha2), country.alpha2, country);
+                  }
+                  alpha2Codes = codes;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return codes;
+      }
+
+      /**
+       * Return the table of the countries by their alpha-3 code. The table is created on the first call.
+       *
+       * @return the table
+       */
+      private CodeTable getAlpha3Codes() {
+         CodeTable codes = alpha3Codes;
+         if (codes == null) {
+            synchronized (this) {
+               codes = alpha3Codes;
+               if (codes == null) {
+                  long start = System.nanoTime();
+                  codes = new CodeTable(LETTERS * LETTERS * LETTERS);
+                  Iterator<Country> it = countries.iterator();
+                  while (it.hasNext()) {
+                     Country country = it.next();
+                     codes.add(alpha3Index(country.alpha3), country.alpha3, country);
+                  }
+                  alpha3Codes = codes;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return codes;
+      }
+
+      /**
+       * Return the table of the countries by their numeric code. The table is created on the first call.
+       *
+       * @return the table
+       */
+      private NumericTable getNumericCodes() {
+         NumericTable codes = numericCodes;
+         if (codes == null) {
+            synchronized (this) {
+               codes = numericCodes;
+               if (codes == null) {
+                  long start = System.nanoTime();
+                  codes = new NumericTable();
+                  Iterator<Country> it = countries.iterator();
+                  while (it.hasNext()) {
+                     codes.add(it.next());
+                  }
+                  numericCodes = codes;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return codes;
+      }
+
+      /**
+       * Return the index of the countries by their normalized name. The index is created on the first call.
+       *
+       * @return the index
+       */
+      NameIndex<Country> getNameIndex() {
+         NameIndex<Country> index = nameIndex;
+         if (index == null) {
+            synchronized (this) {
+               index = nameIndex;
+               if (index == null) {
+                  Map<String, Country> names = getCountryByName();
+                  long start = System.nanoTime();
+                  index = new NameIndex<>(NameNormalizer.normalize(names));
+                  nameIndex = index;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return index;
+      }
+
+      /**
+       * Return the prefix trie of the countries names. The trie is created on the first call.
+       *
+       * @return the trie
+       */
+      NameTrie getNameTrie() {
+         NameTrie trie = nameTrie;
+         if (trie == null) {
+            synchronized (this) {
+               trie = nameTrie;
+               if (trie == null) {
+                  Map<String, Country> names = getCountryByName();
+                  long start = System.nanoTime();
+                  trie = new NameTrie(names);
+                  nameTrie = trie;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return trie;
+      }
+
+      /**
+       * Return the trigram index of the countries names. The index is created on the first call.
+       *
+       * @return the index
+       */
+      TrigramIndex getTrigramIndex() {
+         TrigramIndex index = trigramIndex;
+         if (index == null) {
+            synchronized (this) {
+               index = trigramIndex;
+               if (index == null) {
+                  Map<String, Country> names = getCountryByName();
+                  long start = System.nanoTime();
+                  index = new TrigramIndex(names);
+                  trigramIndex = index;
+                  indexBuilt(start);
+               }
+            }
+         }
+         return index;
+      }
+
+      /**
+       * Return the countries sorted by name or by one of their codes. The view is created on the first call.
+       *
+       * @param order the order of the countries
+       * @return the unmodifiable sorted countries
+       */
+      List<Country> getSortedView(CodeType order) {
+         List<Country> view = sortedViews.get(order.ordinal());
+         if (view == null) {
+            synchronized (this) {
+               view = sortedViews.get(order.ordinal());
+               if (view == null) {
+                  long start = System.nanoTime();
+                  view = createSortedView(order);
+                  sortedViews.set(order.ordinal(), view);
+                  indexBuilt(start);
+               }
+            }
+         }
+         return view;
+      }
+
+      /**
+       * Create a sorted view of the countries. The countries are the ones which can be found by name, so that a country
+       * which has been replaced by a custom country of the same name is not in the view.
+       */
+      private List<Country> createSortedView(final CodeType order) {
+         Set<Country> distinct = Collections.newSetFromMap(new IdentityHashMap<Country, Boolean>());
+         distinct.addAll(getCountryByName().values());
+         Country[] array = distinct.toArray(new Country[distinct.size()]);
+         Arrays.sort(array, new Comparator<Country>() {
+            @Override
+            public int compare(Country country1, Country country2) {
+               return order.compare(country1, country2);
+            }
+         });
+         return Collections.unmodifiableList(Arrays.asList(array));
+      }
+
+      /**
+       * Return the country of a specified name.
+       *
+       * @param name the country name
+       * @return the country
+       */
+      Country getCountryFromName(String name) {
+         return getCountryByName().get(name);
+      }
+
+      /**
+       * Return the country of a specified alpha-2 code.
+       *
+       * @param alpha2 the country alpha2 code
+       * @return the country
+       */
+      Country getCountryFromAlpha2(String alpha2) {
+         CodeTable codes = getAlpha2Codes();
+         int index = alpha2Index(alpha2);
+         if (index >= 0) {
+            return codes.table[index];
+         } else {
+            return getOtherCountry(codes.other, alpha2);
+         }
+      }
+
+      /**
+       * Return the country of a specified alpha-2 code.
+       *
+       * @param alpha2 the country alpha2 code
+       * @return the country
+       */
+      Country getCountryFromAlpha2(CharSequence alpha2) {
+         CodeTable codes = getAlpha2Codes();
+         int index = alpha2Index(alpha2);
+         if (index >= 0) {
+            return codes.table[index];
+         } else {
+            return getOtherCountry(codes.other, alpha2);
+         }
+      }
+
+      /**
+       * Return the country of an alpha-2 code encoded in ASCII in a byte array.
+       *
+       * @param bytes the byte array
+       * @param offset the offset of the code in the array
+       * @param length the length of the code
+       * @return the country
+       */
+      Country getCountryFromAlpha2(byte[] bytes, int offset, int length) {
+         CodeTable codes = getAlpha2Codes();
+         int index = length == 2 ? letterIndex(bytes[offset], bytes[offset + 1]) : -1;
+         if (index >= 0) {
+            return codes.table[index];
+         } else if (codes.other.isEmpty()) {
+            return null;
+         } else {
+            return codes.other.get(new String(bytes, offset, length, StandardCharsets.US_ASCII));
+         }
+      }
+
+      /**
+       * Return the country of an alpha-2 code encoded in ASCII in a buffer.
+       *
+       * @param buffer the buffer
+       * @param position the position of the code in the buffer
+       * @param length the length of the code
+       * @return the country
+       */
+      Country getCountryFromAlpha2(ByteBuffer buffer, int position, int length) {
+         CodeTable codes = getAlpha2Codes();
+         int index = length == 2 ? letterIndex(buffer.get(position), buffer.get(position + 1)) : -1;
+         if (index >= 0) {
+            return codes.table[index];
+         } else if (codes.other.isEmpty()) {
+            return null;
+         } else {
+            return codes.other.get(toASCIIString(buffer, position, length));
+         }
+      }
+
+      /**
+       * Return the country of a specified ISO 3166-2 code, made of the "ISO 3166-2:" prefix followed by the alpha-2 code.
+       *
+       * @param iso31662 the country ISO 3166-2 code
+       * @return the country
+       */
+      Country getCountryFromISO31662(String iso31662) {
+         if (iso31662 == null || !iso31662.startsWith(ISO31662_PREFIX)) {
+            return null;
+         }
+         CodeTable codes = getAlpha2Codes();
+         int length = ISO31662_PREFIX.length();
+         int index = iso31662.length() == length + 2 ? letterIndex(iso31662.charAt(length), iso31662.charAt(length + 1)) : -1;
+         if (index >= 0) {
+            return codes.table[index];
+         } else if (codes.other.isEmpty()) {
+            return null;
+         } else {
+            return codes.other.get(iso31662.substring(length));
+         }
+      }
+
+      /**
+       * Return the country of an ISO 3166-2 code encoded in ASCII in a buffer.
+       *
+       * @param buffer the buffer
+       * @param position the position of the code in the buffer
+       * @param length the length of the code
+       * @return the country
+       */
+      Country getCountryFromISO31662(ByteBuffer buffer, int position, int length) {
+         int prefixLength = ISO31662_PREFIX.length();
+         if (length < prefixLength) {
+            return null;
+         }
+         for (int i = 0; i < prefixLength; i++) {
+            if (buffer.get(position + i) != ISO31662_PREFIX.charAt(i)) {
+               return null;
+            }
+         }
+         return getCountryFromAlpha2(buffer, position + prefixLength, length - prefixLength);
+      }
+
+      /**
+       * Return the country of a specified alpha-3 code.
+       *
+       * @param alpha3 the country alpha3 code
+       * @return the country
+       */
+      Country getCountryFromAlpha3(String alpha3) {
+         CodeTable codes = getAlpha3Codes();
+         int index = alpha3Index(alpha3);
+         if (index >= 0) {
+            return codes.table[index];
+         } else {
+            return getOtherCountry(codes.other, alpha3);
+         }
+      }
+
+      /**
+       * Return the country of a specified alpha-3 code.
+       *
+       * @param alpha3 the country alpha3 code
+       * @return the country
+       */
+      Country getCountryFromAlpha3(CharSequence alpha3) {
+         CodeTable codes = getAlpha3Codes();
+         int index = alpha3Index(alpha3);
+         if (index >= 0) {
+            return codes.table[index];
+         } else {
+            return getOtherCountry(codes.other, alpha3);
+         }
+      }
+
+      /**
+       * Return the country of an alpha-3 code encoded in ASCII in a byte array.
+       *
+       * @param bytes the byte array
+       * @param offset the offset of the code in the array
+       * @param length the length of the code
+       * @return the country
+       */
+      Country getCountryFromAlpha3(byte[] bytes, int offset, int length) {
+         CodeTable codes = getAlpha3Codes();
+         int index = length == 3 ? letterIndex(bytes[offset], bytes[offset + 1], bytes[offset + 2]) : -1;
+         if (index >= 0) {
+            return codes.table[index];
+         } else if (codes.other.isEmpty()) {
+            return null;
+         } else {
+            return codes.other.get(new String(bytes, offset, length, StandardCharsets.US_ASCII));
+         }
+      }
+
+      /**
+       * Return the country of an alpha-3 code encoded in ASCII in a buffer.
+       *
+       * @param buffer the buffer
+       * @param position the position of the code in the buffer
+       * @param length the length of the code
+       * @return the country
+       */
+      Country getCountryFromAlpha3(ByteBuffer buffer, int position, int length) {
+         CodeTable codes = getAlpha3Codes();
+         int index = length == 3 ? letterIndex(buffer.get(position), buffer.get(position + 1), buffer.get(position + 2)) : -1;
+         if (index >= 0) {
+            return codes.table[index];
+         } else if (codes.other.isEmpty()) {
+            return null;
+         } else {
+            return codes.other.get(toASCIIString(buffer, position, length));
+         }
+      }
+
+      /**
+       * Return the country of a code which can not be indexed in a table. Only custom countries can have such codes, so
+       * no String is created if there are none.
+       *
+       * @param map the map of countries for this kind of code
+       * @param code the code
+       * @return the country
+       */
+      private static Country getOtherCountry(Map<String, Country> map, CharSequence code) {
+         if (code == null || map.isEmpty()) {
+            return null;
+         } else {
+            return map.get(code.toString());
+         }
+      }
+
+      private static String toASCIIString(ByteBuffer buffer, int position, int length) {
+         byte[] bytes = new byte[length];
+         for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(position + i);
+         }
+         return new String(bytes, StandardCharsets.US_ASCII);
+      }
+
+      /**
+       * Return the country of a specified numeric code.
+       *
+       * @param numeric the country numeric code
+       * @return the country
+       */
+      Country getCountryFromNumeric(int numeric) {
+         NumericTable codes = getNumericCodes();
+         if (numeric >= 0 && numeric < NUMERIC_CODES) {
+            return codes.table[numeric];
+         } else if (codes.other.isEmpty()) {
+            return null;
+         } else {
+            return codes.other.get(numeric);
+         }
+      }
+
+      /**
+       * Return the index of an alpha-2 code in the alpha-2 table, or -1 if the code is not made of two upper-case letters.
+       *
+       * @param alpha2 the alpha-2 code
+       * @return the index
+       */
+      static int alpha2Index(CharSequence alpha2) {
+         if (alpha2 == null || alpha2.length() != 2) {
+            return -1;
+         }
+         return letterIndex(alpha2.charAt(0), alpha2.charAt(1));
+      }
+
+      /**
+       * Return the index of an alpha-3 code in the alpha-3 table, or -1 if the code is not made of three upper-case letters.
+       *
+       * @param alpha3 the alpha-3 code
+       * @return the index
+       */
+      static int alpha3Index(CharSequence alpha3) {
+         if (alpha3 == null || alpha3.length() != 3) {
+            return -1;
+         }
+         return letterIndex(alpha3.charAt(0), alpha3.charAt(1), alpha3.charAt(2));
+      }
+
+      /**
+       * Return the value of a 3 digits numeric code, or -1 if the code is not made of three digits.
+       *
+       * @param numeric the numeric code
+       * @return the numeric code value
+       */
+      static int numericIndex(CharSequence numeric) {
+         if (numeric == null || numeric.length() != 3) {
+            return -1;
+         }
+         return digitsIndex(numeric.charAt(0), numeric.charAt(1), numeric.charAt(2));
+      }
+
+      /**
+       * Return the value of three digits, or -1 if one of the characters is not a digit.
+       *
+       * @param c0 the first character
+       * @param c1 the second character
+       * @param c2 the third character
+       * @return the value
+       */
+      static int digitsIndex(int c0, int c1, int c2) {
+         int d0 = c0 - '0';
+         int d1 = c1 - '0';
+         int d2 = c2 - '0';
+         if ((d0 | d1 | d2 | (9 - d0) | (9 - d1) | (9 - d2)) < 0) {
+            return -1;
+         }
+         return (d0 * 10 + d1) * 10 + d2;
+      }
+
+      /**
+       * Return the index of two upper-case letters, or -1 if one of the characters is not an upper-case letter.
+       *
+       * @param c0 the first character
+       * @param c1 the second character
+       * @return the index
+       */
+      static int letterIndex(int c0, int c1) {
+         int l0 = c0 - 'A';
+         int l1 = c1 - 'A';
+         if ((l0 | l1 | (LETTERS - 1 - l0) | (LETTERS - 1 - l1)) < 0) {
+            return -1;
+         }
+         return l0 * LETTERS + l1;
+      }
+
+      /**
+       * Return the index of three upper-case letters, or -1 if one of the characters is not an upper-case letter.
+       *
+       * @param c0 the first character
+       * @param c1 the second character
+       * @param c2 the third character
+       * @return the index
+       */
+      static int letterIndex(int c0, int c1, int c2) {
+         int l0 = c0 - 'A';
+         int l1 = c1 - 'A';
+         int l2 = c2 - 'A';
+         if ((l0 | l1 | l2 | (LETTERS - 1 - l0) | (LETTERS - 1 - l1) | (LETTERS - 1 - l2)) < 0) {
+            return -1;
+         }
+         return (l0 * LETTERS + l1) * LETTERS + l2;
+      }
+
+      /**
+       * A table of countries indexed by a letters code.
+       */
+      private static final class CodeTable {
+         /**
+          * The countries indexed by their code, for codes made of upper-case letters.
+          */
+         final Country[] table;
+         /**
+          * The countries whose code can not be indexed in the table. Only used for custom countries.
+          */
+         final Map<String, Country> other = new HashMap<>();
+
+         private CodeTable(int size) {
+            table = new Country[size];
+         }
+
+         private void add(int index, String code, Country country) {
+            if (index >= 0) {
+               table[index] = country;
+            } else {
+               other.put(code, country);
+            }
+         }
+      }
+
+      /**
+       * A table of countries indexed by their numeric code.
+       */
+      private static final class NumericTable {
+         /**
+          * The countries indexed by their numeric code, for codes between 0 and 999.
+          */
+         final Country[] table = new Country[NUMERIC_CODES];
+         /**
+          * The countries whose numeric code is not between 0 and 999. Only used for custom countries.
+          */
+         final Map<Integer, Country> other = new HashMap<>();
+
+         private void add(Country country) {
+            if (country.numeric >= 0 && country.numeric < NUMERIC_CODES) {
+               table[country.numeric] = country;
+            } else {
+               other.put(country.numeric, country);
+            }
          }
       }
    }
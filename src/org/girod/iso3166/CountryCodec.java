@@ -0,0 +1,361 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Encode the countries of the dataset in one byte per country, for example to store columns of countries. The byte of
+ * each country is fixed in the <code>codec.properties</code> file, which is append-only: a new country of the dataset
+ * gets the next unused value, so the values already stored by the applications do not change with the next versions
+ * of the dataset, whatever the position of the countries in the countries XML file. The 0 byte is used for null, so
+ * at most 255 countries can be encoded.
+ *
+ * <p>Only the countries of the dataset can be encoded, because the ordinals of the custom countries depend on the
+ * order in which they are created. A country is encoded by its ordinal, so a custom country which reuses the code of a
+ * country of the dataset is rejected. The encoded values do not change when custom countries are added or when the
+ * {@link CountryOverlay} is reloaded: a country of the overlay which replaces a country of the dataset takes its
+ * ordinal and has the same encoded value, as the countries of the previous versions of the overlay. The encoding
+ * tables are only created again when the overlay is reloaded. The bulk methods use lookup tables and no branch
+ * depending on the values, so that the JIT compiler can unroll their loops.</p>
+ *
+ * @since 0.3
+ */
+public final class CountryCodec {
+   /**
+    * The encoded value of a null country.
+    */
+   public static final byte NULL = 0;
+   /**
+    * The maximum number of encoded countries.
+    */
+   static final int MAX_COUNTRIES = 255;
+   private static final int LETTERS = 26;
+
+   private CountryCodec() {
+   }
+
+   private static volatile Map<String, Integer> VALUES = null;
+   private static volatile Tables TABLES = null;
+
+   /**
+    * Return the encoded values by alpha-2 code, read from the <code>codec.properties</code> file on the first call.
+    *
+    * @return the encoded values
+    * @throws IllegalStateException if the file can not be read, or if a value is not between 1 and 255 or is used twice
+    */
+   static Map<String, Integer> getValues() {
+      Map<String, Integer> values = VALUES;
+      if (values == null) {
+         values = readValues();
+         VALUES = values;
+      }
+      return values;
+   }
+
+   private static Map<String, Integer> readValues() {
+      Properties properties = new Properties();
+      try (InputStream stream = CountryCodec.class.getResourceAsStream("codec.properties")) {
+         if (stream == null) {
+            throw new IOException("The codec.properties file is missing");
+         }
+         properties.load(stream);
+      } catch (IOException ex) {
+         throw new IllegalStateException("Could not read the codec values: " + ex.getMessage(), ex);
+      }
+      Map<String, Integer> values = new HashMap<>();
+      boolean[] used = new boolean[MAX_COUNTRIES + 1];
+      Iterator<String> it = properties.stringPropertyNames().iterator();
+      while (it.hasNext()) {
+         String alpha2 = it.next();
+         int value;
+         try {
+            value = Integer.parseInt(properties.getProperty(alpha2).trim());
+         } catch (NumberFormatException ex) {
+            value = -1;
+         }
+         if (value <= 0 || value > MAX_COUNTRIES || used[value]) {
+            throw new IllegalStateException("Invalid codec value for " + alpha2 + ": " + properties.getProperty(alpha2));
+         }
+         used[value] = true;
+         values.put(alpha2, value);
+      }
+      return values;
+   }
+
+   /**
+    * Return the encoding tables of the current countries. The tables are created again when the countries of the
+    * dataset change, which only happens when the countries overlay is reloaded.
+    *
+    * @return the tables
+    */
+   private static Tables getTables() {
+      List<Country> dataset = Country.getCache().dataset;
+      Tables tables = TABLES;
+      if (tables == null || tables.dataset != dataset) {
+         tables = new Tables(dataset);
+         TABLES = tables;
+      }
+      return tables;
+   }
+
+   /**
+    * The encoding tables of the countries of the dataset.
+    */
+   private static final class Tables {
+      private final List<Country> dataset;
+      /**
+       * The encoded values by country ordinal, NULL for the countries which have no value.
+       */
+      private final byte[] ordinals;
+      /**
+       * The countries by their encoded value, the first one being null.
+       */
+      private final Country[] countries = new Country[MAX_COUNTRIES + 1];
+      /**
+       * The encoded values by alpha-2 code index.
+       */
+      private final byte[] alpha2 = new byte[LETTERS * LETTERS];
+      /**
+       * The encoded values by alpha-3 code index.
+       */
+      private final byte[] alpha3 = new byte[LETTERS * LETTERS * LETTERS];
+      /**
+       * The encoded values by numeric code.
+       */
+      private final byte[] numeric = new byte[1000];
+
+      private Tables(List<Country> dataset) {
+         this.dataset = dataset;
+         ordinals = new byte[dataset.size()];
+         // the values are associated with the codes of the original dataset, so that an overlay country which changes
+         // the code of a country keeps its value
+         List<Country> original = Country.getDatasetCache().countries;
+         Map<String, Integer> values = getValues();
+         for (int i = 0; i < dataset.size(); i++) {
+            Integer encoded = values.get(original.get(i).getAlpha2());
+            if (encoded == null) {
+               continue;
+            }
+            Country country = dataset.get(i);
+            byte value = (byte) encoded.intValue();
+            ordinals[i] = value;
+            countries[encoded] = country;
+            int index = Country.Cache.alpha2Index(country.getAlpha2());
+            if (index >= 0) {
+               alpha2[index] = value;
+            }
+            index = Country.Cache.alpha3Index(country.getAlpha3());
+            if (index >= 0) {
+               alpha3[index] = value;
+            }
+            int code = country.getNumericCode();
+            if (code >= 0 && code < numeric.length) {
+               numeric[code] = value;
+            }
+         }
+      }
+   }
+
+   /**
+    * Encode a country.
+    *
+    * @param country the country, which can be null
+    * @return the encoded value
+    * @throws IllegalArgumentException if the country is not a country of the dataset
+    */
+   public static byte encode(Country country) {
+      return encode(getTables().ordinals, country);
+   }
+
+   private static byte encode(byte[] ordinals, Country country) {
+      if (country == null) {
+         return NULL;
+      }
+      int ordinal = country.getOrdinal();
+      byte value = ordinal >= 0 && ordinal < ordinals.length ? ordinals[ordinal] : NULL;
+      if (value == NULL) {
+         throw new IllegalArgumentException(country.getName() + " is not a country of the dataset");
+      }
+      return value;
+   }
+
+   /**
+    * Decode a country.
+    *
+    * @param value the encoded value
+    * @return the country, or null for the {@link #NULL} value or a value which is not used by any country
+    */
+   public static Country decode(byte value) {
+      return getTables().countries[value & 0xFF];
+   }
+
+   /**
+    * Encode an array of countries in a byte array.
+    *
+    * @param in the countries, which can contain null values
+    * @param inOffset the offset of the first country
+    * @param out the encoded values
+    * @param outOffset the offset of the first encoded value
+    * @param count the number of countries
+    * @throws IllegalArgumentException if one of the countries is not a country of the dataset
+    */
+   public static void encode(Country[] in, int inOffset, byte[] out, int outOffset, int count) {
+      byte[] ordinals = getTables().ordinals;
+      for (int i = 0; i < count; i++) {
+         out[outOffset + i] = encode(ordinals, in[inOffset + i]);
+      }
+   }
+
+   /**
+    * Encode an array of countries in a buffer. The position of the buffer is not modified.
+    *
+    * @param in the countries, which can contain null values
+    * @param inOffset the offset of the first country
+    * @param out the buffer
+    * @param position the position of the first encoded value in the buffer
+    * @param count the number of countries
+    * @throws IllegalArgumentException if one of the countries is not a country of the dataset
+    */
+   public static void encode(Country[] in, int inOffset, ByteBuffer out, int position, int count) {
+      byte[] ordinals = getTables().ordinals;
+      for (int i = 0; i < count; i++) {
+         out.put(position + i, encode(ordinals, in[inOffset + i]));
+      }
+   }
+
+   /**
+    * Decode an array of encoded values.
+    *
+    * @param in the encoded values
+    * @param inOffset the offset of the first encoded value
+    * @param out the countries
+    * @param outOffset the offset of the first country
+    * @param count the number of countries
+    */
+   public static void decode(byte[] in, int inOffset, Country[] out, int outOffset, int count) {
+      Country[] countries = getTables().countries;
+      for (int i = 0; i < count; i++) {
+         out[outOffset + i] = countries[in[inOffset + i] & 0xFF];
+      }
+   }
+
+   /**
+    * Decode the encoded values of a buffer. The position of the buffer is not modified.
+    *
+    * @param in the buffer
+    * @param position the position of the first encoded value in the buffer
+    * @param out the countries
+    * @param outOffset the offset of the first country
+    * @param count the number of countries
+    */
+   public static void decode(ByteBuffer in, int position, Country[] out, int outOffset, int count) {
+      Country[] countries = getTables().countries;
+      for (int i = 0; i < count; i++) {
+         out[outOffset + i] = countries[in.get(position + i) & 0xFF];
+      }
+   }
+
+   /**
+    * Encode a column of alpha-2 codes, each code being 2 ASCII bytes. The codes which are not the code of a country of
+    * the dataset are encoded as {@link #NULL}.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param out the encoded values
+    * @param outOffset the offset of the first encoded value
+    * @param count the number of codes
+    * @return the number of codes which are not the code of a country of the dataset
+    */
+   public static int encodeAlpha2(byte[] codes, int offset, byte[] out, int outOffset, int count) {
+      byte[] table = getTables().alpha2;
+      int unknown = 0;
+      for (int i = 0; i < count; i++) {
+         int o = offset + 2 * i;
+         int index = Country.Cache.letterIndex(codes[o], codes[o + 1]);
+         byte value = index < 0 ? NULL : table[index];
+         out[outOffset + i] = value;
+         unknown += value == NULL ? 1 : 0;
+      }
+      return unknown;
+   }
+
+   /**
+    * Encode a column of alpha-3 codes, each code being 3 ASCII bytes. The codes which are not the code of a country of
+    * the dataset are encoded as {@link #NULL}.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param out the encoded values
+    * @param outOffset the offset of the first encoded value
+    * @param count the number of codes
+    * @return the number of codes which are not the code of a country of the dataset
+    */
+   public static int encodeAlpha3(byte[] codes, int offset, byte[] out, int outOffset, int count) {
+      byte[] table = getTables().alpha3;
+      int unknown = 0;
+      for (int i = 0; i < count; i++) {
+         int o = offset + 3 * i;
+         int index = Country.Cache.letterIndex(codes[o], codes[o + 1], codes[o + 2]);
+         byte value = index < 0 ? NULL : table[index];
+         out[outOffset + i] = value;
+         unknown += value == NULL ? 1 : 0;
+      }
+      return unknown;
+   }
+
+   /**
+    * Encode a column of numeric codes, each code being 3 ASCII digits. The codes which are not the code of a country of
+    * the dataset are encoded as {@link #NULL}.
+    *
+    * @param codes the codes
+    * @param offset the offset of the first code
+    * @param out the encoded values
+    * @param outOffset the offset of the first encoded value
+    * @param count the number of codes
+    * @return the number of codes which are not the code of a country of the dataset
+    */
+   public static int encodeNumeric(byte[] codes, int offset, byte[] out, int outOffset, int count) {
+      byte[] table = getTables().numeric;
+      int unknown = 0;
+      for (int i = 0; i < count; i++) {
+         int o = offset + 3 * i;
+         int index = Country.Cache.digitsIndex(codes[o], codes[o + 1], codes[o + 2]);
+         byte value = index < 0 ? NULL : table[index];
+         out[outOffset + i] = value;
+         unknown += value == NULL ? 1 : 0;
+      }
+      return unknown;
+   }
+}
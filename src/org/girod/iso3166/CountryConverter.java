@@ -0,0 +1,532 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Convert one column of a CSV or TSV file between the names and the codes of the countries. The file is read through
+ * memory-mapped windows of at most 64 MB, and each window is split at line boundaries in one chunk per thread. The
+ * converted chunks are written in order, and the buffers of the chunks are reused from one window to the next, so the
+ * memory used does not depend on the size of the file. Only one window is mapped at a time: each window is unmapped as
+ * soon as its chunks are written, or only released to the garbage collector on runtimes which do not allow to unmap a
+ * buffer explicitly. The input and the output files can not be the same file.
+ *
+ * <p>Fields may be quoted with double quotes, but quoted fields can not contain line breaks. The fields whose country
+ * can not be found are written unchanged. The names are looked up with {@link Country#getCountryFromName(String)}
+ * first, then with {@link Country#getCountryFromNormalizedName(CharSequence)}.</p>
+ *
+ * @since 0.3
+ */
+class CountryConverter {
+   private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+   private static final byte NEWLINE = '\n';
+   private static final byte QUOTE = '"';
+   /**
+    * The Unsafe instance and its invokeCleaner method used to unmap the windows, or null if they are not available.
+    */
+   private static final Object UNSAFE;
+   private static final Method INVOKE_CLEANER;
+   private final CodeType from;
+   private final CodeType to;
+   private final int column;
+   private final byte separator;
+   private final boolean header;
+   private final int threads;
+   private final int windowSize;
+   private final Country.Cache cache;
+   /**
+    * The quoted converted form of each country, by country ordinal.
+    */
+   private final byte[][] quoted;
+   private long lines = 0;
+   private long unresolved = 0;
+
+   static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      try {
+         Class<?> clazz = Class.forName("sun.misc.Unsafe");
+         invokeCleaner = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+         Field field = clazz.getDeclaredField("theUnsafe");
+         field.setAccessible(true);
+         unsafe = field.get(null);
+      } catch (ReflectiveOperationException | RuntimeException ex) {
+         invokeCleaner = null;
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = unsafe != null ? invokeCleaner : null;
+   }
+
+   /**
+    * Constructor.
+    *
+    * @param from the type of the codes in the column
+    * @param to the type of the converted codes
+    * @param column the index of the column, starting from 0
+    * @param separator the fields separator
+    * @param header true if the first line is a header which must not be converted
+    * @param threads the number of threads
+    */
+   CountryConverter(CodeType from, CodeType to, int column, byte separator, boolean header, int threads) {
+      this(from, to, column, separator, header, threads, DEFAULT_WINDOW_SIZE);
+   }
+
+   CountryConverter(CodeType from, CodeType to, int column, byte separator, boolean header, int threads, int windowSize) {
+      this.from = from;
+      this.to = to;
+      this.column = column;
+      this.separator = separator;
+      this.header = header;
+      this.threads = Math.max(1, threads);
+      this.windowSize = windowSize;
+      this.cache = Country.getCache();
+      int count = Country.getOrdinalCount();
+      quoted = new byte[count][];
+      for (int i = 0; i < count; i++) {
+         Country country = Country.getCountryFromOrdinal(i);
+         if (country != null) {
+            quoted[i] = quote(country.getBytes(to));
+         }
+      }
+   }
+
+   private static byte[] quote(byte[] value) {
+      byte[] bytes = new byte[value.length * 2 + 2];
+      int length = 0;
+      bytes[length++] = QUOTE;
+      for (int i = 0; i < value.length; i++) {
+         if (value[i] == QUOTE) {
+            bytes[length++] = QUOTE;
+         }
+         bytes[length++] = value[i];
+      }
+      bytes[length++] = QUOTE;
+      return Arrays.copyOf(bytes, length);
+   }
+
+   private boolean needsQuotes(byte[] value) {
+      for (int i = 0; i < value.length; i++) {
+         if (value[i] == separator || value[i] == QUOTE) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   /**
+    * Return the number of converted lines, excluding the header.
+    *
+    * @return the number of lines
+    */
+   long getLineCount() {
+      return lines;
+   }
+
+   /**
+    * Return the number of lines whose country could not be found.
+    *
+    * @return the number of lines
+    */
+   long getUnresolvedCount() {
+      return unresolved;
+   }
+
+   /**
+    * Convert a file.
+    *
+    * @param input the input file
+    * @param output the output file
+    * @throws IOException if the files can not be read or written, or if they are the same file
+    */
+   void convert(File input, File output) throws IOException {
+      if (output.exists() && Files.isSameFile(input.toPath(), output.toPath())) {
+         throw new IOException("The input and the output are the same file: " + input);
+      }
+      ExecutorService executor = threads > 1 ? Executors.newFixedThreadPool(threads) : null;
+      try (FileChannel in = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+         FileChannel out = FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+         Chunk[] chunks = new Chunk[threads];
+         for (int i = 0; i < threads; i++) {
+            chunks[i] = new Chunk();
+         }
+         long size = in.size();
+         long position = 0;
+         while (position < size) {
+            long length = Math.min(windowSize, size - position);
+            MappedByteBuffer window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+            int end = (int) length;
+            if (position + length < size) {
+               end = lastLineEnd(window, (int) length);
+               // a line is longer than the window
+               while (end == 0 && position + length < size) {
+                  length = Math.min(Math.min(2 * length, Integer.MAX_VALUE), size - position);
+                  unmap(window);
+                  window = in.map(FileChannel.MapMode.READ_ONLY, position, length);
+                  end = position + length < size ? lastLineEnd(window, (int) length) : (int) length;
+               }
+            }
+            int start = 0;
+            if (header && position == 0) {
+               start = Math.min(lineEnd(window, 0, end) + 1, end);
+               ByteBuffer headerLine = window.duplicate();
+               headerLine.limit(start);
+               writeFully(out, headerLine);
+            }
+            convertWindow(window, start, end, chunks, executor);
+            // the chunks are done with the window, so it can be unmapped before the next one is mapped
+            for (int i = 0; i < chunks.length; i++) {
+               chunks[i].window = null;
+            }
+            unmap(window);
+            for (int i = 0; i < chunks.length; i++) {
+               writeFully(out, ByteBuffer.wrap(chunks[i].bytes, 0, chunks[i].length));
+               lines += chunks[i].lines;
+               unresolved += chunks[i].unresolved;
+            }
+            position += end;
+         }
+      } finally {
+         if (executor != null) {
+            executor.shutdown();
+         }
+      }
+   }
+
+   /**
+    * Unmap a window which is not used anymore. The window is left to the garbage collector if it can not be unmapped.
+    */
+   private static void unmap(MappedByteBuffer window) {
+      if (INVOKE_CLEANER != null) {
+         try {
+            INVOKE_CLEANER.invoke(UNSAFE, window);
+         } catch (ReflectiveOperationException | RuntimeException ex) {
+            // left to the garbage collector
+         }
+      }
+   }
+
+   private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+         out.write(buffer);
+      }
+   }
+
+   /**
+    * Return the index after the last newline of a window, or 0 if there is none.
+    */
+   private static int lastLineEnd(ByteBuffer window, int length) {
+      for (int i = length - 1; i >= 0; i--) {
+         if (window.get(i) == NEWLINE) {
+            return i + 1;
+         }
+      }
+      return 0;
+   }
+
+   /**
+    * Return the index of the newline ending the line starting at an index, or the end if there is none.
+    */
+   private static int lineEnd(ByteBuffer window, int start, int end) {
+      for (int i = start; i < end; i++) {
+         if (window.get(i) == NEWLINE) {
+            return i;
+         }
+      }
+      return end;
+   }
+
+   private void convertWindow(MappedByteBuffer window, int start, int end, Chunk[] chunks, ExecutorService executor) throws IOException {
+      int from = start;
+      for (int i = 0; i < chunks.length; i++) {
+         int to = i == chunks.length - 1 ? end : Math.max(from, start + (int) ((long) (end - start) * (i + 1) / chunks.length));
+         if (to < end && to > from) {
+            to = Math.min(lineEnd(window, to - 1, end) + 1, end);
+         }
+         chunks[i].reset(window, from, to);
+         from = to;
+      }
+      if (executor == null) {
+         chunks[0].call();
+         return;
+      }
+      List<Future<Void>> futures = new ArrayList<>(chunks.length);
+      for (int i = 0; i < chunks.length; i++) {
+         futures.add(executor.submit(chunks[i]));
+      }
+      try {
+         for (int i = 0; i < futures.size(); i++) {
+            futures.get(i).get();
+         }
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new IOException(ex);
+      } catch (ExecutionException ex) {
+         throw new IOException(ex.getCause());
+      }
+   }
+
+   private Country resolve(ByteBuffer window, int start, int end) {
+      int length = end - start;
+      switch (from) {
+         case ALPHA2:
+            return cache.getCountryFromAlpha2(window, start, length);
+         case ALPHA3:
+            return cache.getCountryFromAlpha3(window, start, length);
+         case NUMERIC:
+            if (length != 3) {
+               return null;
+            }
+            int numeric = Country.Cache.digitsIndex(window.get(start), window.get(start + 1), window.get(start + 2));
+            return numeric < 0 ? null : cache.getCountryFromNumeric(numeric);
+         case ISO31662:
+            return cache.getCountryFromISO31662(window, start, length);
+         default:
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+               bytes[i] = window.get(start + i);
+            }
+            String name = new String(bytes, StandardCharsets.UTF_8);
+            Country country = cache.getCountryFromName(name);
+            return country != null ? country : cache.getNameIndex().get(name);
+      }
+   }
+
+   /**
+    * A chunk of a window, converted by one thread. The buffer of the chunk is reused for the next windows.
+    */
+   private class Chunk implements Callable<Void> {
+      private byte[] bytes = new byte[4096];
+      private int length = 0;
+      private ByteBuffer window = null;
+      private int start = 0;
+      private int end = 0;
+      private long lines = 0;
+      private long unresolved = 0;
+
+      private void reset(MappedByteBuffer window, int start, int end) {
+         this.window = window.duplicate();
+         this.start = start;
+         this.end = end;
+         length = 0;
+         lines = 0;
+         unresolved = 0;
+      }
+
+      private void ensureCapacity(int added) {
+         if (length + added > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(length + added, 2 * bytes.length));
+         }
+      }
+
+      private void copy(int from, int to) {
+         int count = to - from;
+         if (count > 0) {
+            ensureCapacity(count);
+            window.position(from);
+            window.get(bytes, length, count);
+            length += count;
+         }
+      }
+
+      private void append(byte[] value) {
+         ensureCapacity(value.length);
+         System.arraycopy(value, 0, bytes, length, value.length);
+         length += value.length;
+      }
+
+      @Override
+      public Void call() {
+         int lineStart = start;
+         while (lineStart < end) {
+            int lineEnd = lineEnd(window, lineStart, end);
+            convertLine(lineStart, lineEnd);
+            int next = Math.min(lineEnd + 1, end);
+            copy(lineEnd, next);
+            lineStart = next;
+         }
+         return null;
+      }
+
+      private void convertLine(int lineStart, int lineEnd) {
+         int fieldEnd = lineEnd;
+         if (fieldEnd > lineStart && window.get(fieldEnd - 1) == '\r') {
+            fieldEnd--;
+         }
+         // find the column, ignoring the separators in quoted fields
+         int fieldStart = lineStart;
+         int index = 0;
+         boolean inQuotes = false;
+         int i = lineStart;
+         while (i < fieldEnd) {
+            byte b = window.get(i);
+            if (b == QUOTE) {
+               inQuotes = !inQuotes;
+            } else if (b == separator && !inQuotes) {
+               if (index == column) {
+                  break;
+               }
+               index++;
+               fieldStart = i + 1;
+            }
+            i++;
+         }
+         if (index != column) {
+            copy(lineStart, lineEnd);
+            return;
+         }
+         lines++;
+         fieldEnd = i;
+         int codeStart = fieldStart;
+         int codeEnd = fieldEnd;
+         boolean isQuoted = codeEnd - codeStart >= 2 && window.get(codeStart) == QUOTE && window.get(codeEnd - 1) == QUOTE;
+         if (isQuoted) {
+            codeStart++;
+            codeEnd--;
+         }
+         Country country = resolve(window, codeStart, codeEnd);
+         if (country == null) {
+            unresolved++;
+            copy(lineStart, lineEnd);
+            return;
+         }
+         copy(lineStart, fieldStart);
+         int ordinal = country.getOrdinal();
+         byte[] value = country.getBytes(to);
+         if (isQuoted || needsQuotes(value)) {
+            value = ordinal >= 0 && ordinal < quoted.length && quoted[ordinal] != null ? quoted[ordinal] : quote(value);
+         }
+         append(value);
+         copy(fieldEnd, lineEnd);
+      }
+   }
+
+   private static CodeType parseType(String value) {
+      try {
+         return CodeType.valueOf(value.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException ex) {
+         throw new IllegalArgumentException("Unknown code type: " + value);
+      }
+   }
+
+   private static void printUsage() {
+      System.err.println("Usage: java -jar CountryISO3166.jar -in <file> -out <file> -from <type> -to <type> [-column <n>]");
+      System.err.println("          [-separator <char>|tab] [-header] [-threads <n>]");
+      System.err.println("   <type> is one of name, alpha2, alpha3, numeric, iso31662");
+      System.err.println("   -column: the index of the column to convert, starting from 1 (default 1)");
+      System.err.println("   -separator: the fields separator (default ,)");
+      System.err.println("   -header: the first line is a header which is not converted");
+      System.err.println("   -threads: the number of threads (default the number of processors)");
+   }
+
+   /**
+    * Run the converter from the command line arguments.
+    *
+    * @param args the arguments
+    * @return the exit status
+    */
+   static int run(String[] args) {
+      File input = null;
+      File output = null;
+      CodeType from = null;
+      CodeType to = null;
+      int column = 1;
+      byte separator = ',';
+      boolean header = false;
+      int threads = Runtime.getRuntime().availableProcessors();
+      try {
+         for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("-help")) {
+               printUsage();
+               return 0;
+            } else if (arg.equals("-header")) {
+               header = true;
+            } else if (i + 1 < args.length) {
+               String value = args[++i];
+               if (arg.equals("-in")) {
+                  input = new File(value);
+               } else if (arg.equals("-out")) {
+                  output = new File(value);
+               } else if (arg.equals("-from")) {
+                  from = parseType(value);
+               } else if (arg.equals("-to")) {
+                  to = parseType(value);
+               } else if (arg.equals("-column")) {
+                  column = Integer.parseInt(value);
+               } else if (arg.equals("-separator")) {
+                  separator = value.equalsIgnoreCase("tab") ? (byte) '\t' : (byte) value.charAt(0);
+               } else if (arg.equals("-threads")) {
+                  threads = Integer.parseInt(value);
+               } else {
+                  throw new IllegalArgumentException("Unknown argument: " + arg);
+               }
+            } else {
+               throw new IllegalArgumentException("Missing value for argument: " + arg);
+            }
+         }
+         if (input == null || output == null || from == null || to == null || column < 1) {
+            throw new IllegalArgumentException("Missing or invalid arguments");
+         }
+      } catch (IllegalArgumentException ex) {
+         System.err.println(ex.getMessage());
+         printUsage();
+         return 1;
+      }
+      CountryConverter converter = new CountryConverter(from, to, column - 1, separator, header, threads);
+      try {
+         long start = System.currentTimeMillis();
+         converter.convert(input, output);
+         long time = System.currentTimeMillis() - start;
+         System.err.println("Converted " + converter.getLineCount() + " lines in " + time + " ms, "
+            + converter.getUnresolvedCount() + " unresolved");
+         return 0;
+      } catch (IOException ex) {
+         System.err.println("Error: " + ex.getMessage());
+         return 2;
+      }
+   }
+}
@@ -0,0 +1,126 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.Arrays;
+
+/**
+ * A map from countries to int values, backed by an int array indexed by the country ordinals. The values are not
+ * boxed, and the countries without a value have a value of 0.
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @since 0.3
+ */
+public class CountryIntMap extends CountryValueMap {
+   private int[] values;
+
+   /**
+    * Create an empty map.
+    */
+   public CountryIntMap() {
+      values = new int[Country.getOrdinalCount()];
+   }
+
+   @Override
+   int capacity() {
+      return values.length;
+   }
+
+   @Override
+   void resize(int capacity) {
+      values = Arrays.copyOf(values, capacity);
+   }
+
+   @Override
+   void clearValues() {
+      Arrays.fill(values, 0);
+   }
+
+   /**
+    * Return the value associated with a country.
+    *
+    * @param country the country
+    * @return the value, or 0 if there is no value for the country
+    */
+   public int get(Country country) {
+      int index = indexOf(country);
+      return index < 0 ? 0 : values[index];
+   }
+
+   /**
+    * Set the value associated with a country.
+    *
+    * @param country the country
+    * @param value the value
+    * @return the previous value, or 0 if there was no value for the country
+    */
+   public int put(Country country, int value) {
+      int index = slot(country);
+      int previous = values[index];
+      values[index] = value;
+      return previous;
+   }
+
+   /**
+    * Add a value to the value associated with a country.
+    *
+    * @param country the country
+    * @param delta the value to add
+    * @return the new value
+    */
+   public int add(Country country, int delta) {
+      return values[slot(country)] += delta;
+   }
+
+   /**
+    * Increment the value associated with a country.
+    *
+    * @param country the country
+    * @return the new value
+    */
+   public int increment(Country country) {
+      return add(country, 1);
+   }
+
+   /**
+    * Remove the value associated with a country.
+    *
+    * @param country the country
+    * @return the previous value, or 0 if there was no value for the country
+    */
+   public int remove(Country country) {
+      int index = indexOf(country);
+      if (index < 0) {
+         return 0;
+      }
+      int previous = values[index];
+      values[index] = 0;
+      removeKey(country);
+      return previous;
+   }
+}
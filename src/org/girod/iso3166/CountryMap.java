@@ -0,0 +1,250 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A map whose keys are countries, backed by an array indexed by the country ordinals, in the spirit of the
+ * {@link java.util.EnumMap} class. Getting or putting a value does not compute any hash and does not create any object.
+ * Null values are allowed. Only the countries which have been added to the cache can be keys.
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @param <V> the type of the values
+ * @since 0.3
+ */
+public class CountryMap<V> extends AbstractMap<Country, V> {
+   private static final Object NULL = new Object();
+   private Object[] values;
+   private int size = 0;
+   private int modCount = 0;
+   private Set<Map.Entry<Country, V>> entrySet = null;
+
+   /**
+    * Create an empty map.
+    */
+   public CountryMap() {
+      values = new Object[Country.getOrdinalCount()];
+   }
+
+   @SuppressWarnings("unchecked")
+   private V unmask(Object value) {
+      return value == NULL ? null : (V) value;
+   }
+
+   /**
+    * Return the value associated with a country.
+    *
+    * @param country the country
+    * @return the value, or null if there is no value for the country
+    */
+   public V get(Country country) {
+      int ordinal = Country.ordinalOf(country);
+      return ordinal >= 0 && ordinal < values.length ? unmask(values[ordinal]) : null;
+   }
+
+   @Override
+   public V get(Object key) {
+      return key instanceof Country ? get((Country) key) : null;
+   }
+
+   @Override
+   public boolean containsKey(Object key) {
+      if (!(key instanceof Country)) {
+         return false;
+      }
+      int ordinal = Country.ordinalOf((Country) key);
+      return ordinal >= 0 && ordinal < values.length && values[ordinal] != null;
+   }
+
+   @Override
+   public V put(Country country, V value) {
+      int ordinal = Country.requireOrdinal(country);
+      if (ordinal >= values.length) {
+         values = Arrays.copyOf(values, Math.max(ordinal + 1, 2 * values.length));
+      }
+      Object previous = values[ordinal];
+      values[ordinal] = value == null ? NULL : value;
+      if (previous == null) {
+         size++;
+         modCount++;
+      }
+      return unmask(previous);
+   }
+
+   @Override
+   public V remove(Object key) {
+      if (!(key instanceof Country)) {
+         return null;
+      }
+      int ordinal = Country.ordinalOf((Country) key);
+      if (ordinal < 0 || ordinal >= values.length) {
+         return null;
+      }
+      Object previous = values[ordinal];
+      if (previous != null) {
+         values[ordinal] = null;
+         size--;
+         modCount++;
+      }
+      return unmask(previous);
+   }
+
+   @Override
+   public int size() {
+      return size;
+   }
+
+   @Override
+   public void clear() {
+      Arrays.fill(values, null);
+      size = 0;
+      modCount++;
+   }
+
+   @Override
+   public Set<Map.Entry<Country, V>> entrySet() {
+      if (entrySet == null) {
+         entrySet = new AbstractSet<Map.Entry<Country, V>>() {
+            @Override
+            public Iterator<Map.Entry<Country, V>> iterator() {
+               return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+               return size;
+            }
+         };
+      }
+      return entrySet;
+   }
+
+   private class EntryIterator implements Iterator<Map.Entry<Country, V>> {
+      private int next = -1;
+      private int last = -1;
+      private int expectedModCount = modCount;
+
+      private EntryIterator() {
+         advance();
+      }
+
+      private void advance() {
+         next++;
+         while (next < values.length && values[next] == null) {
+            next++;
+         }
+      }
+
+      @Override
+      public boolean hasNext() {
+         return next < values.length;
+      }
+
+      @Override
+      public Map.Entry<Country, V> next() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+         if (next >= values.length) {
+            throw new NoSuchElementException();
+         }
+         last = next;
+         advance();
+         return new Entry(last);
+      }
+
+      @Override
+      public void remove() {
+         if (last < 0) {
+            throw new IllegalStateException();
+         }
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+         values[last] = null;
+         size--;
+         last = -1;
+         modCount++;
+         expectedModCount = modCount;
+      }
+   }
+
+   private class Entry implements Map.Entry<Country, V> {
+      private final int ordinal;
+
+      private Entry(int ordinal) {
+         this.ordinal = ordinal;
+      }
+
+      @Override
+      public Country getKey() {
+         return Country.getCountryFromOrdinal(ordinal);
+      }
+
+      @Override
+      public V getValue() {
+         return unmask(values[ordinal]);
+      }
+
+      @Override
+      public V setValue(V value) {
+         Object previous = values[ordinal];
+         values[ordinal] = value == null ? NULL : value;
+         return unmask(previous);
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (!(o instanceof Map.Entry)) {
+            return false;
+         }
+         Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+         V value = getValue();
+         return getKey().equals(entry.getKey()) && (value == null ? entry.getValue() == null : value.equals(entry.getValue()));
+      }
+
+      @Override
+      public int hashCode() {
+         V value = getValue();
+         return getKey().hashCode() ^ (value == null ? 0 : value.hashCode());
+      }
+
+      @Override
+      public String toString() {
+         return getKey() + "=" + getValue();
+      }
+   }
+}
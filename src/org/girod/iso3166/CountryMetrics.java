@@ -0,0 +1,240 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The metrics of the lookups. The metrics are only collected if the <code>org.girod.iso3166.metrics</code> system
+ * property is set to true when the library is loaded. In that case they are also published through JMX under the
+ * <code>org.girod.iso3166:type=CountryMetrics</code> name. If they are disabled, the only cost of the metrics in the
+ * lookups is the check of a static final field, which is removed by the JIT compiler.
+ *
+ * <p>The lookups at a date are counted with the other lookups of the same code. The <code>resolve</code> methods
+ * which resolve arrays of codes are not counted, so that the metrics add no cost per code to them.</p>
+ *
+ * @since 0.3
+ */
+public final class CountryMetrics implements CountryMetricsMBean {
+   /**
+    * The name of the system property which enables the metrics.
+    */
+   public static final String PROPERTY = "org.girod.iso3166.metrics";
+   /**
+    * The JMX name of the metrics.
+    */
+   public static final String OBJECT_NAME = "org.girod.iso3166:type=CountryMetrics";
+   static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+   static final Counter NAME = new Counter();
+   static final Counter NORMALIZED_NAME = new Counter();
+   static final Counter FUZZY_NAME = new Counter();
+   static final Counter PREFIX = new Counter();
+   static final Counter ALPHA2 = new Counter();
+   static final Counter ALPHA3 = new Counter();
+   static final Counter NUMERIC = new Counter();
+   private static final CountryMetrics INSTANCE = new CountryMetrics();
+   private volatile long cacheInitializationTime = -1;
+   private volatile int datasetCountries = 0;
+   private final LongAdder indexBuildTime = new LongAdder();
+   private final LongAdder registeredCountries = new LongAdder();
+
+   static {
+      if (ENABLED) {
+         try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+         } catch (JMException ex) {
+            System.err.println("Could not register the country metrics: " + ex.getMessage());
+         }
+      }
+   }
+
+   private CountryMetrics() {
+   }
+
+   /**
+    * Return the metrics. The metrics are always 0 if they are disabled.
+    *
+    * @return the metrics
+    */
+   public static CountryMetrics getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * Return true if the metrics are enabled.
+    *
+    * @return true if the metrics are enabled
+    */
+   public static boolean isEnabled() {
+      return ENABLED;
+   }
+
+   void cacheInitialized(long nanos, int countries) {
+      cacheInitializationTime = nanos / 1000;
+      datasetCountries = countries;
+   }
+
+   void indexBuilt(long nanos) {
+      indexBuildTime.add(nanos / 1000);
+   }
+
+   void countriesRegistered(int count) {
+      registeredCountries.add(count);
+   }
+
+   @Override
+   public long getNameHits() {
+      return NAME.hits.sum();
+   }
+
+   @Override
+   public long getNameMisses() {
+      return NAME.misses.sum();
+   }
+
+   @Override
+   public long getNormalizedNameHits() {
+      return NORMALIZED_NAME.hits.sum();
+   }
+
+   @Override
+   public long getNormalizedNameMisses() {
+      return NORMALIZED_NAME.misses.sum();
+   }
+
+   @Override
+   public long getFuzzyNameHits() {
+      return FUZZY_NAME.hits.sum();
+   }
+
+   @Override
+   public long getFuzzyNameMisses() {
+      return FUZZY_NAME.misses.sum();
+   }
+
+   @Override
+   public long getPrefixHits() {
+      return PREFIX.hits.sum();
+   }
+
+   @Override
+   public long getPrefixMisses() {
+      return PREFIX.misses.sum();
+   }
+
+   @Override
+   public long getAlpha2Hits() {
+      return ALPHA2.hits.sum();
+   }
+
+   @Override
+   public long getAlpha2Misses() {
+      return ALPHA2.misses.sum();
+   }
+
+   @Override
+   public long getAlpha3Hits() {
+      return ALPHA3.hits.sum();
+   }
+
+   @Override
+   public long getAlpha3Misses() {
+      return ALPHA3.misses.sum();
+   }
+
+   @Override
+   public long getNumericHits() {
+      return NUMERIC.hits.sum();
+   }
+
+   @Override
+   public long getNumericMisses() {
+      return NUMERIC.misses.sum();
+   }
+
+   @Override
+   public long getCacheInitializationTime() {
+      return cacheInitializationTime;
+   }
+
+   @Override
+   public long getIndexBuildTime() {
+      return indexBuildTime.sum();
+   }
+
+   @Override
+   public int getDatasetCountries() {
+      return datasetCountries;
+   }
+
+   @Override
+   public long getRegisteredCountries() {
+      return registeredCountries.sum();
+   }
+
+   @Override
+   public void reset() {
+      NAME.reset();
+      NORMALIZED_NAME.reset();
+      FUZZY_NAME.reset();
+      PREFIX.reset();
+      ALPHA2.reset();
+      ALPHA3.reset();
+      NUMERIC.reset();
+   }
+
+   /**
+    * The hits and misses of the lookups in one index. The counters are striped, so that threads performing lookups
+    * concurrently do not contend on the same cache line.
+    */
+   static final class Counter {
+      private final LongAdder hits = new LongAdder();
+      private final LongAdder misses = new LongAdder();
+
+      void record(Country country) {
+         record(country != null);
+      }
+
+      void record(boolean found) {
+         if (found) {
+            hits.increment();
+         } else {
+            misses.increment();
+         }
+      }
+
+      private void reset() {
+         hits.reset();
+         misses.reset();
+      }
+   }
+}
@@ -0,0 +1,170 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+/**
+ * The JMX interface of the lookup metrics. The metrics are registered under the
+ * <code>org.girod.iso3166:type=CountryMetrics</code> name.
+ *
+ * @since 0.3
+ */
+public interface CountryMetricsMBean {
+   /**
+    * Return the number of lookups by name which found a country.
+    *
+    * @return the number of lookups
+    */
+   public long getNameHits();
+
+   /**
+    * Return the number of lookups by name which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getNameMisses();
+
+   /**
+    * Return the number of lookups by normalized name which found a country.
+    *
+    * @return the number of lookups
+    */
+   public long getNormalizedNameHits();
+
+   /**
+    * Return the number of lookups by normalized name which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getNormalizedNameMisses();
+
+   /**
+    * Return the number of lookups by fuzzy name which found a country.
+    *
+    * @return the number of lookups
+    */
+   public long getFuzzyNameHits();
+
+   /**
+    * Return the number of lookups by fuzzy name which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getFuzzyNameMisses();
+
+   /**
+    * Return the number of lookups by prefix which found at least one country.
+    *
+    * @return the number of lookups
+    */
+   public long getPrefixHits();
+
+   /**
+    * Return the number of lookups by prefix which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getPrefixMisses();
+
+   /**
+    * Return the number of lookups by alpha-2 code which found a country.
+    *
+    * @return the number of lookups
+    */
+   public long getAlpha2Hits();
+
+   /**
+    * Return the number of lookups by alpha-2 code which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getAlpha2Misses();
+
+   /**
+    * Return the number of lookups by alpha-3 code which found a country.
+    *
+    * @return the number of lookups
+    */
+   public long getAlpha3Hits();
+
+   /**
+    * Return the number of lookups by alpha-3 code which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getAlpha3Misses();
+
+   /**
+    * Return the number of lookups by numeric code which found a country.
+    *
+    * @return the number of lookups
+    */
+   public long getNumericHits();
+
+   /**
+    * Return the number of lookups by numeric code which found no country.
+    *
+    * @return the number of lookups
+    */
+   public long getNumericMisses();
+
+   /**
+    * Return the time used to load the countries of the dataset in the cache, in microseconds. Return -1 if the cache
+    * has not been initialized yet. The indexes of the cache are built lazily on their first use, and the time used to
+    * build them is not included, see {@link #getIndexBuildTime()}.
+    *
+    * @return the time in microseconds
+    */
+   public long getCacheInitializationTime();
+
+   /**
+    * Return the total time used to build the indexes and the sorted views of the caches, in microseconds. The indexes
+    * are built on their first use, and again for each new cache created when countries are added or when the overlay is
+    * reloaded.
+    *
+    * @return the time in microseconds
+    */
+   public long getIndexBuildTime();
+
+   /**
+    * Return the number of countries of the dataset.
+    *
+    * @return the number of countries
+    */
+   public int getDatasetCountries();
+
+   /**
+    * Return the number of custom countries registered in the cache.
+    *
+    * @return the number of countries
+    */
+   public long getRegisteredCountries();
+
+   /**
+    * Reset the lookup counters.
+    */
+   public void reset();
+}
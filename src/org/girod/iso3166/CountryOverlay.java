@@ -0,0 +1,240 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.xml.sax.SAXException;
+
+/**
+ * An external XML file of countries which patches the dataset, and which is reloaded when it changes. The file must
+ * be valid against the countries schema. Each country of the file replaces the country of the dataset which has the
+ * same numeric code, and the other countries of the file are added to the dataset. Deleting the file removes the
+ * overlay.
+ *
+ * <p>The file is watched with a {@link WatchService} by a daemon thread. When the file changes, a new cache with all
+ * its indexes is built by this thread, then replaces the current one atomically, so the lookups never block and never
+ * see a partially loaded file. If the file is not valid, the current countries are kept.</p>
+ *
+ * <p>The overlay can also be set with the <code>org.girod.iso3166.overlay</code> system property, in which case it is
+ * watched from the first use of the library. Only one overlay should be watched at a time.</p>
+ *
+ * @since 0.3
+ */
+public final class CountryOverlay implements Closeable {
+   /**
+    * The name of the system property which contains the path of the overlay file.
+    */
+   public static final String PROPERTY = "org.girod.iso3166.overlay";
+   /**
+    * The delay during which the changes of the file are grouped before reloading it, in milliseconds.
+    */
+   private static final long DEBOUNCE_DELAY = 100;
+   private final File file;
+   private final WatchService watchService;
+   private final Thread thread;
+   private volatile long generation = 0;
+   private volatile Exception lastError = null;
+
+   private CountryOverlay(File file) throws IOException {
+      this.file = file.getAbsoluteFile();
+      Path dir = this.file.getParentFile().toPath();
+      watchService = dir.getFileSystem().newWatchService();
+      dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+         StandardWatchEventKinds.ENTRY_DELETE);
+      thread = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            watch();
+         }
+      }, "CountryOverlay " + file.getName());
+      thread.setDaemon(true);
+   }
+
+   /**
+    * Load an overlay file and watch its changes.
+    *
+    * @param file the overlay file
+    * @return the overlay
+    * @throws IOException if the file can not be read or watched, or is not valid
+    */
+   public static CountryOverlay watch(File file) throws IOException {
+      CountryOverlay overlay = new CountryOverlay(file);
+      try {
+         overlay.load();
+      } catch (IOException | SAXException ex) {
+         overlay.watchService.close();
+         throw ex instanceof IOException ? (IOException) ex : new IOException(ex);
+      }
+      overlay.thread.start();
+      return overlay;
+   }
+
+   /**
+    * Parse the overlay file set in the system property, if there is one, and watch its changes. This is called while the
+    * first cache is created, but without holding the lock of the countries, and the returned countries are applied
+    * before the cache is published, so the lookups never see the dataset without the overlay.
+    *
+    * @return the countries of the overlay, or null if there is no overlay or if it can not be loaded
+    */
+   static List<Country> watchFromProperty() {
+      String path = System.getProperty(PROPERTY);
+      if (path == null) {
+         return null;
+      }
+      try {
+         CountryOverlay overlay = new CountryOverlay(new File(path));
+         List<Country> countries;
+         try {
+            countries = overlay.parse();
+         } catch (IOException | SAXException ex) {
+            overlay.watchService.close();
+            throw ex;
+         }
+         overlay.generation++;
+         overlay.thread.start();
+         return countries;
+      } catch (IOException | SAXException ex) {
+         System.err.println("Could not load the countries overlay " + path + ": " + ex.getMessage());
+         return null;
+      }
+   }
+
+   /**
+    * Return the overlay file.
+    *
+    * @return the file
+    */
+   public File getFile() {
+      return file;
+   }
+
+   /**
+    * Return the number of times the overlay has been loaded.
+    *
+    * @return the number of times the overlay has been loaded
+    */
+   public long getGeneration() {
+      return generation;
+   }
+
+   /**
+    * Return the error of the last load of the overlay, or null if the last load succeeded.
+    *
+    * @return the error
+    */
+   public Exception getLastError() {
+      return lastError;
+   }
+
+   /**
+    * Load the overlay file again.
+    *
+    * @return true if the file was loaded, false if it is not valid
+    */
+   public synchronized boolean reload() {
+      try {
+         load();
+         lastError = null;
+         return true;
+      } catch (IOException | SAXException ex) {
+         lastError = ex;
+         System.err.println("Could not load the countries overlay " + file + ": " + ex.getMessage());
+         return false;
+      }
+   }
+
+   private void load() throws IOException, SAXException {
+      Country.applyOverlay(parse());
+      generation++;
+   }
+
+   private List<Country> parse() throws IOException, SAXException {
+      if (file.exists()) {
+         return new CountryParser().parseFile(file);
+      } else {
+         return Collections.emptyList();
+      }
+   }
+
+   /**
+    * Stop watching the overlay file. The countries of the overlay are kept.
+    *
+    * @throws IOException if the watch service can not be closed
+    */
+   @Override
+   public void close() throws IOException {
+      watchService.close();
+   }
+
+   private void watch() {
+      try {
+         while (true) {
+            WatchKey key = watchService.take();
+            boolean changed = hasChanged(key);
+            // group the events of the same write
+            WatchKey next = watchService.poll(DEBOUNCE_DELAY, TimeUnit.MILLISECONDS);
+            while (next != null) {
+               changed |= hasChanged(next);
+               next = watchService.poll(DEBOUNCE_DELAY, TimeUnit.MILLISECONDS);
+            }
+            if (changed) {
+               reload();
+            }
+         }
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+      } catch (ClosedWatchServiceException ex) {
+      }
+   }
+
+   private boolean hasChanged(WatchKey key) {
+      boolean changed = false;
+      Iterator<WatchEvent<?>> it = key.pollEvents().iterator();
+      while (it.hasNext()) {
+         WatchEvent<?> event = it.next();
+         if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            changed = true;
+         } else if (event.context() instanceof Path && file.getName().equals(event.context().toString())) {
+            changed = true;
+         }
+      }
+      key.reset();
+      return changed;
+   }
+}
@@ -26,14 +26,19 @@ the project website at the project page on https://github.com/hervegirod/country
  */
 package org.girod.iso3166;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
+import javax.xml.XMLConstants;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import javax.xml.validation.Validator;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
@@ -41,21 +46,25 @@ import org.xml.sax.helpers.DefaultHandler;
 /**
  * Parse the XML fiel for the list of countries.
  *
- * @version 0.2
+ * @version 0.3
  */
 class CountryParser extends DefaultHandler {
-   private Country.Cache cache = null;
+   private final List<Country> countries = new ArrayList<>();
    private String name = null;
    private String alpha2 = null;
    private String alpha3 = null;
    private int numeric = 0;
    private List<String> altNames = null;
 
-   CountryParser(Country.Cache cache) {
-      this.cache = cache;
+   CountryParser() {
    }
 
-   void parseSpec() {
+   /**
+    * Parse the countries XML file.
+    *
+    * @return the countries, in the order of the file
+    */
+   List<Country> parseSpec() {
       SAXParserFactory factory = SAXParserFactory.newInstance();
       try {
          SAXParser parser = factory.newSAXParser();
@@ -63,6 +72,30 @@ class CountryParser extends DefaultHandler {
          parser.parse(stream, this);
       } catch (ParserConfigurationException | SAXException | IOException ex) {
       }
+      return countries;
+   }
+
+   /**
+    * Parse an external XML file of countries, which must be valid against the countries schema.
+    *
+    * @param file the file
+    * @return the countries, in the order of the file
+    * @throws IOException if the file can not be read
+    * @throws SAXException if the file is not valid
+    */
+   List<Country> parseFile(File file) throws IOException, SAXException {
+      SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+      Schema schema = schemaFactory.newSchema(this.getClass().getResource("countries.xsd"));
+      Validator validator = schema.newValidator();
+      validator.validate(new StreamSource(file));
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      try {
+         SAXParser parser = factory.newSAXParser();
+         parser.parse(file, this);
+      } catch (ParserConfigurationException ex) {
+         throw new SAXException(ex);
+      }
+      return countries;
    }
 
    @Override
@@ -83,8 +116,8 @@ class CountryParser extends DefaultHandler {
 
    private void addCountry() {
       if (name != null && alpha2 != null && alpha3 != null && numeric != 0) {
-         Country country = new Country(name, altNames, alpha2, alpha3, numeric, false);
-         addCountryToCache(country, altNames);
+         Country country = new Country(name, altNames, alpha2, alpha3, numeric, countries.size());
+         countries.add(country);
       }
    }
 
@@ -132,22 +165,4 @@ class CountryParser extends DefaultHandler {
          }
       }
    }
-
-   private void addCountryToCache(Country country) {
-      cache.countryByName.put(country.getName(), country);
-      cache.countryByAlpha2.put(country.getAlpha2(), country);
-      cache.countryByAlpha3.put(country.getAlpha3(), country);
-      cache.countryByNum.put(country.getNumericCode(), country);
-   }
-
-   private void addCountryToCache(Country country, List<String> altNames) {
-      addCountryToCache(country);
-      if (altNames != null) {
-         Iterator<String> it = altNames.iterator();
-         while (it.hasNext()) {
-            String altName = it.next();
-            cache.countryByName.put(altName, country);
-         }
-      }
-   }
 }
@@ -0,0 +1,586 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A set of countries with their lookup indexes. The default registry contains the countries of the dataset, of the
+ * {@link CountryOverlay}, and the custom countries added to the cache. It owns the countries cache, and the static
+ * lookup methods of {@link Country} delegate to it. The dataset registry only contains the countries of the dataset.
+ *
+ * <p>A registry can be derived from another one with additional countries, for example for one tenant, without
+ * modifying the parent registry. A derived registry has the same array-backed indexes as the default registry, but only
+ * over its additional countries, and a reference to its parent, so it costs much less than a copy of the countries. The
+ * additional countries have priority over the countries of the parent which have the same name or code. A registry
+ * derived from the default registry sees the countries later added to the default registry.</p>
+ *
+ * <p>Note that the countries of a derived registry should be created with the <code>addToCache</code> argument set to
+ * false, else they would also be added to the default registry. Such countries are not added to the cache and have no
+ * ordinal, so nothing outside of the registry refers to them, and they are garbage collected with the registry. For
+ * the same reason they can not be added to a {@link CountrySet} or be used as keys of a {@link CountryMap}. Derived
+ * registries are also the way for the tests to use custom countries without modifying the default registry.</p>
+ *
+ * @since 0.3
+ */
+public final class CountryRegistry {
+   private static final CountryRegistry DEFAULT = new CountryRegistry(null, null, Collections.<Country>emptyList());
+   private static volatile CountryRegistry DATASET = null;
+   private final CountryRegistry parent;
+   private final List<Country> added;
+   /**
+    * The countries and indexes of the registry. For a derived registry, they only contain the added countries. The
+    * cache of the default registry is created on the first use, and replaced by {@link Country} when countries are
+    * added or when the overlay is reloaded, while holding the Country lock.
+    */
+   volatile Country.Cache cache;
+   /**
+    * The sorted countries of a derived registry, by CodeType ordinal.
+    */
+   private final AtomicReferenceArray<SortedCountries> sortedCountries = new AtomicReferenceArray<>(CodeType.values().length);
+
+   private CountryRegistry(Country.Cache cache, CountryRegistry parent, List<Country> added) {
+      this.cache = cache;
+      this.parent = parent;
+      this.added = added;
+   }
+
+   /**
+    * Return the default registry, to which the static lookup methods of {@link Country} delegate.
+    *
+    * @return the default registry
+    */
+   public static CountryRegistry getDefault() {
+      return DEFAULT;
+   }
+
+   /**
+    * Return the registry of the countries of the dataset, without the overlay and the custom countries.
+    *
+    * @return the dataset registry
+    */
+   public static CountryRegistry getDataset() {
+      CountryRegistry registry = DATASET;
+      if (registry == null) {
+         registry = new CountryRegistry(Country.getDatasetCache(), null, Collections.<Country>emptyList());
+         DATASET = registry;
+      }
+      return registry;
+   }
+
+   /**
+    * Return a new registry which contains the countries of this registry and additional countries.
+    *
+    * @param countries the additional countries
+    * @return the new registry
+    */
+   public CountryRegistry derive(Collection<Country> countries) {
+      List<Country> list = Collections.unmodifiableList(new ArrayList<>(countries));
+      return new CountryRegistry(new Country.Cache(list), this, list);
+   }
+
+   /**
+    * Return a new registry which contains the countries of this registry and additional countries.
+    *
+    * @param countries the additional countries
+    * @return the new registry
+    */
+   public CountryRegistry derive(Country... countries) {
+      return derive(Arrays.asList(countries));
+   }
+
+   /**
+    * Return the registry from which this registry was derived, or null if this registry was not derived.
+    *
+    * @return the parent registry
+    */
+   public CountryRegistry getParent() {
+      return parent;
+   }
+
+   /**
+    * Return the countries added to the parent registry by this registry.
+    *
+    * @return the added countries
+    */
+   public List<Country> getAddedCountries() {
+      return added;
+   }
+
+   /**
+    * Return the cache of the registry, creating the cache of the default registry on the first call.
+    *
+    * @return the cache
+    */
+   Country.Cache getCache() {
+      Country.Cache current = cache;
+      return current != null ? current : Country.createCache();
+   }
+
+   /**
+    * Return true if a country of the parent registry is replaced by an added country of the same name.
+    *
+    * @param country the country of the parent registry
+    * @return true if the country is replaced
+    */
+   private boolean isShadowed(Country country) {
+      return getCache().getCountryFromName(country.getName()) != null;
+   }
+
+   /**
+    * Return the country of a specified name or alternate name. Return null if there is no country for this name.
+    *
+    * @param name the country name
+    * @return the country
+    */
+   public Country getCountryFromName(String name) {
+      Country country = findByName(name);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.NAME.record(country);
+      }
+      return country;
+   }
+
+   private Country findByName(String name) {
+      Country country = getCache().getCountryFromName(name);
+      return country != null || parent == null ? country : parent.findByName(name);
+   }
+
+   /**
+    * Return the country of a specified name, ignoring the case, the diacritics, the punctuation and the whitespaces.
+    * Return null if there is no country for this name.
+    *
+    * @param name the country name
+    * @return the country
+    * @see Country#getCountryFromNormalizedName(CharSequence)
+    */
+   public Country getCountryFromNormalizedName(CharSequence name) {
+      Country country = findByNormalizedName(name);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.NORMALIZED_NAME.record(country);
+      }
+      return country;
+   }
+
+   private Country findByNormalizedName(CharSequence name) {
+      Country country = getCache().getNameIndex().get(name);
+      return country != null || parent == null ? country : parent.findByNormalizedName(name);
+   }
+
+   /**
+    * Return the countries whose name or alternate name starts with a prefix, ignoring the case, the diacritics, the
+    * punctuation and the whitespaces. For a derived registry, the added countries come first, followed by the countries
+    * of the parent. Each country is returned only once.
+    *
+    * @param prefix the prefix
+    * @param limit the maximum number of countries to return
+    * @return the countries
+    * @see Country#findByPrefix(CharSequence, int)
+    */
+   public List<Country> findByPrefix(CharSequence prefix, int limit) {
+      List<Country> countries = findAllByPrefix(prefix, limit);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.PREFIX.record(!countries.isEmpty());
+      }
+      return countries;
+   }
+
+   private List<Country> findAllByPrefix(CharSequence prefix, int limit) {
+      List<Country> countries = getCache().getNameTrie().findByPrefix(prefix, limit);
+      if (parent == null || countries.size() >= limit) {
+         return countries;
+      }
+      List<Country> parentCountries = parent.findAllByPrefix(prefix, limit);
+      if (parentCountries.isEmpty()) {
+         return countries;
+      }
+      List<Country> list = new ArrayList<>(countries);
+      Iterator<Country> it = parentCountries.iterator();
+      while (it.hasNext() && list.size() < limit) {
+         Country country = it.next();
+         if (!isShadowed(country)) {
+            list.add(country);
+         }
+      }
+      return list;
+   }
+
+   /**
+    * Return the country whose name or alternate name is the closest to a possibly misspelled name. The maximum edit
+    * distance between the normalized names is a quarter of the length of the name (with a minimum of 1). Return null if
+    * no country name is close enough.
+    *
+    * @param name the country name
+    * @return the match
+    * @see Country#getCountryFromFuzzyName(CharSequence)
+    */
+   public FuzzyMatch getCountryFromFuzzyName(CharSequence name) {
+      if (name == null) {
+         return null;
+      }
+      return getCountryFromFuzzyName(name, Math.max(1, name.length() / 4));
+   }
+
+   /**
+    * Return the country whose name or alternate name is the closest to a possibly misspelled name. For a derived
+    * registry, an added country has priority over a country of the parent at the same distance. Return null if no
+    * country name is within the maximum edit distance.
+    *
+    * @param name the country name
+    * @param maxDistance the maximum edit distance between the normalized names
+    * @return the match
+    * @see Country#getCountryFromFuzzyName(CharSequence, int)
+    */
+   public FuzzyMatch getCountryFromFuzzyName(CharSequence name, int maxDistance) {
+      FuzzyMatch match = findByFuzzyName(name, maxDistance);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.FUZZY_NAME.record(match != null);
+      }
+      return match;
+   }
+
+   private FuzzyMatch findByFuzzyName(CharSequence name, int maxDistance) {
+      FuzzyMatch match = getCache().getTrigramIndex().find(name, maxDistance);
+      if (parent == null || (match != null && match.getDistance() == 0)) {
+         return match;
+      }
+      FuzzyMatch parentMatch = parent.findByFuzzyName(name, match == null ? maxDistance : match.getDistance() - 1);
+      return parentMatch != null && !isShadowed(parentMatch.getCountry()) ? parentMatch : match;
+   }
+
+   /**
+    * Return the country of a specified alpha-2 code. Return null if there is no country for this code.
+    *
+    * @param alpha2 the country alpha-2 code
+    * @return the country
+    */
+   public Country getCountryFromAlpha2(String alpha2) {
+      Country country = findByAlpha2(alpha2);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA2.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha2(String alpha2) {
+      Country country = getCache().getCountryFromAlpha2(alpha2);
+      return country != null || parent == null ? country : parent.findByAlpha2(alpha2);
+   }
+
+   /**
+    * Return the country of a specified alpha-2 code. Return null if there is no country for this code.
+    *
+    * @param alpha2 the country alpha-2 code
+    * @return the country
+    */
+   public Country getCountryFromAlpha2(CharSequence alpha2) {
+      Country country = findByAlpha2(alpha2);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA2.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha2(CharSequence alpha2) {
+      Country country = getCache().getCountryFromAlpha2(alpha2);
+      return country != null || parent == null ? country : parent.findByAlpha2(alpha2);
+   }
+
+   /**
+    * Return the country of an alpha-2 code encoded in ASCII in a byte array. Return null if there is no country for
+    * this code.
+    *
+    * @param bytes the byte array
+    * @param offset the offset of the code in the array
+    * @param length the length of the code
+    * @return the country
+    */
+   public Country getCountryFromAlpha2(byte[] bytes, int offset, int length) {
+      Country country = findByAlpha2(bytes, offset, length);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA2.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha2(byte[] bytes, int offset, int length) {
+      Country country = getCache().getCountryFromAlpha2(bytes, offset, length);
+      return country != null || parent == null ? country : parent.findByAlpha2(bytes, offset, length);
+   }
+
+   /**
+    * Return the country of an alpha-2 code encoded in ASCII in a buffer. Return null if there is no country for this
+    * code. The position of the buffer is not modified.
+    *
+    * @param buffer the buffer
+    * @param position the position of the code in the buffer
+    * @param length the length of the code
+    * @return the country
+    */
+   public Country getCountryFromAlpha2(ByteBuffer buffer, int position, int length) {
+      Country country = findByAlpha2(buffer, position, length);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA2.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha2(ByteBuffer buffer, int position, int length) {
+      Country country = getCache().getCountryFromAlpha2(buffer, position, length);
+      return country != null || parent == null ? country : parent.findByAlpha2(buffer, position, length);
+   }
+
+   /**
+    * Return the country of a specified alpha-3 code. Return null if there is no country for this code.
+    *
+    * @param alpha3 the country alpha-3 code
+    * @return the country
+    */
+   public Country getCountryFromAlpha3(String alpha3) {
+      Country country = findByAlpha3(alpha3);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA3.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha3(String alpha3) {
+      Country country = getCache().getCountryFromAlpha3(alpha3);
+      return country != null || parent == null ? country : parent.findByAlpha3(alpha3);
+   }
+
+   /**
+    * Return the country of a specified alpha-3 code. Return null if there is no country for this code.
+    *
+    * @param alpha3 the country alpha-3 code
+    * @return the country
+    */
+   public Country getCountryFromAlpha3(CharSequence alpha3) {
+      Country country = findByAlpha3(alpha3);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA3.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha3(CharSequence alpha3) {
+      Country country = getCache().getCountryFromAlpha3(alpha3);
+      return country != null || parent == null ? country : parent.findByAlpha3(alpha3);
+   }
+
+   /**
+    * Return the country of an alpha-3 code encoded in ASCII in a byte array. Return null if there is no country for
+    * this code.
+    *
+    * @param bytes the byte array
+    * @param offset the offset of the code in the array
+    * @param length the length of the code
+    * @return the country
+    */
+   public Country getCountryFromAlpha3(byte[] bytes, int offset, int length) {
+      Country country = findByAlpha3(bytes, offset, length);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA3.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha3(byte[] bytes, int offset, int length) {
+      Country country = getCache().getCountryFromAlpha3(bytes, offset, length);
+      return country != null || parent == null ? country : parent.findByAlpha3(bytes, offset, length);
+   }
+
+   /**
+    * Return the country of an alpha-3 code encoded in ASCII in a buffer. Return null if there is no country for this
+    * code. The position of the buffer is not modified.
+    *
+    * @param buffer the buffer
+    * @param position the position of the code in the buffer
+    * @param length the length of the code
+    * @return the country
+    */
+   public Country getCountryFromAlpha3(ByteBuffer buffer, int position, int length) {
+      Country country = findByAlpha3(buffer, position, length);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.ALPHA3.record(country);
+      }
+      return country;
+   }
+
+   private Country findByAlpha3(ByteBuffer buffer, int position, int length) {
+      Country country = getCache().getCountryFromAlpha3(buffer, position, length);
+      return country != null || parent == null ? country : parent.findByAlpha3(buffer, position, length);
+   }
+
+   /**
+    * Return the country of a specified numeric code. Return null if there is no country for this code.
+    *
+    * @param numeric the country numeric code
+    * @return the country
+    */
+   public Country getCountryFromNumeric(int numeric) {
+      Country country = findByNumeric(numeric);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.NUMERIC.record(country);
+      }
+      return country;
+   }
+
+   private Country findByNumeric(int numeric) {
+      Country country = getCache().getCountryFromNumeric(numeric);
+      return country != null || parent == null ? country : parent.findByNumeric(numeric);
+   }
+
+   /**
+    * Return the country of a specified numeric code. Return null if there is no country for this code.
+    *
+    * @param numeric the country numeric code as a 3 digits String
+    * @return the country
+    */
+   public Country getCountryFromNumeric(String numeric) {
+      return getCountryFromNumericIndex(Country.Cache.numericIndex(numeric));
+   }
+
+   /**
+    * Return the country of a specified numeric code. Return null if there is no country for this code.
+    *
+    * @param numeric the country numeric code as a 3 digits character sequence
+    * @return the country
+    */
+   public Country getCountryFromNumeric(CharSequence numeric) {
+      return getCountryFromNumericIndex(Country.Cache.numericIndex(numeric));
+   }
+
+   /**
+    * Return the country of a 3 digits numeric code encoded in ASCII in a byte array. Return null if there is no country
+    * for this code.
+    *
+    * @param bytes the byte array
+    * @param offset the offset of the code in the array
+    * @param length the length of the code
+    * @return the country
+    */
+   public Country getCountryFromNumeric(byte[] bytes, int offset, int length) {
+      int index = length == 3 ? Country.Cache.digitsIndex(bytes[offset], bytes[offset + 1], bytes[offset + 2]) : -1;
+      return getCountryFromNumericIndex(index);
+   }
+
+   /**
+    * Return the country of a 3 digits numeric code encoded in ASCII in a buffer. Return null if there is no country for
+    * this code. The position of the buffer is not modified.
+    *
+    * @param buffer the buffer
+    * @param position the position of the code in the buffer
+    * @param length the length of the code
+    * @return the country
+    */
+   public Country getCountryFromNumeric(ByteBuffer buffer, int position, int length) {
+      int index = length == 3 ? Country.Cache.digitsIndex(buffer.get(position), buffer.get(position + 1),
+         buffer.get(position + 2)) : -1;
+      return getCountryFromNumericIndex(index);
+   }
+
+   private Country getCountryFromNumericIndex(int index) {
+      Country country = index < 0 ? null : findByNumeric(index);
+      if (CountryMetrics.ENABLED) {
+         CountryMetrics.NUMERIC.record(country);
+      }
+      return country;
+   }
+
+   /**
+    * Return the countries of the registry, sorted by name. Each country appears only once, and a country of the parent
+    * registry which has the same name as an added country is replaced by this country. The list is unmodifiable.
+    *
+    * @return the countries
+    */
+   public List<Country> getCountries() {
+      return getCountries(CodeType.NAME);
+   }
+
+   /**
+    * Return the countries of the registry, sorted by name or by one of their codes. The countries which have the same
+    * code are sorted by name. Each country appears only once, and a country of the parent registry which has the same
+    * name as an added country is replaced by this country. The list is unmodifiable.
+    *
+    * @param order the order of the countries
+    * @return the countries
+    */
+   public List<Country> getCountries(CodeType order) {
+      if (parent == null) {
+         return getCache().getSortedView(order);
+      }
+      List<Country> parentList = parent.getCountries(order);
+      SortedCountries sorted = sortedCountries.get(order.ordinal());
+      if (sorted == null || sorted.parentCountries != parentList) {
+         sorted = new SortedCountries(parentList, createCountries(parentList, order));
+         sortedCountries.set(order.ordinal(), sorted);
+      }
+      return sorted.countries;
+   }
+
+   private List<Country> createCountries(List<Country> parentList, final CodeType order) {
+      List<Country> own = getCache().getSortedView(order);
+      List<Country> list = new ArrayList<>(parentList.size() + own.size());
+      Iterator<Country> it = parentList.iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         if (!isShadowed(country)) {
+            list.add(country);
+         }
+      }
+      list.addAll(own);
+      Collections.sort(list, new Comparator<Country>() {
+         @Override
+         public int compare(Country country1, Country country2) {
+            return order.compare(country1, country2);
+         }
+      });
+      return Collections.unmodifiableList(list);
+   }
+
+   /**
+    * The countries of a derived registry in one order, and the countries of the parent used to create them.
+    */
+   private static final class SortedCountries {
+      private final List<Country> parentCountries;
+      private final List<Country> countries;
+
+      private SortedCountries(List<Country> parentCountries, List<Country> countries) {
+         this.parentCountries = parentCountries;
+         this.countries = countries;
+      }
+   }
+}
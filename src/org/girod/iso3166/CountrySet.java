@@ -0,0 +1,430 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of countries backed by a bitset indexed by the country ordinals. The membership checks only test one bit, and
+ * the union, intersection and difference with another CountrySet are performed on 64 countries at a time.
+ *
+ * <p>The set can be converted to and from a compact form as a long array, where the bit <code>n % 64</code> of the word
+ * <code>n / 64</code> is set if the set contains the country of ordinal <code>n</code>. Note that the ordinals of the
+ * countries of the dataset are stable, but the ordinals of the custom countries depend on the order in which they are
+ * added to the cache.</p>
+ *
+ * <p>Only the countries of the cache can be added to the set. A country which is equal to a country of the cache, such
+ * as a deserialized copy of a custom country, is considered to be this country, so that the set is consistent with
+ * {@link Country#equals(Object)}.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ *
+ * @since 0.3
+ */
+public class CountrySet extends AbstractSet<Country> implements Cloneable, Serializable {
+   private static final long serialVersionUID = 1L;
+   private static final long[] EMPTY = new long[0];
+   private transient long[] words;
+   private transient int modCount = 0;
+
+   /**
+    * Create an empty set.
+    */
+   public CountrySet() {
+      words = EMPTY;
+   }
+
+   private CountrySet(long[] words) {
+      this.words = words;
+   }
+
+   /**
+    * Create a set containing some countries.
+    *
+    * @param countries the countries
+    * @return the set
+    */
+   public static CountrySet of(Country... countries) {
+      CountrySet set = new CountrySet();
+      for (int i = 0; i < countries.length; i++) {
+         set.add(countries[i]);
+      }
+      return set;
+   }
+
+   /**
+    * Create a set containing all the countries of the dataset and the registered custom countries.
+    *
+    * @return the set
+    */
+   public static CountrySet allOf() {
+      CountrySet set = new CountrySet();
+      Iterator<Country> it = Country.getCache().countries.iterator();
+      while (it.hasNext()) {
+         set.add(it.next());
+      }
+      return set;
+   }
+
+   /**
+    * Create a set from its compact form.
+    *
+    * @param words the compact form of the set
+    * @return the set
+    * @see #toLongArray()
+    */
+   public static CountrySet valueOf(long[] words) {
+      return new CountrySet(trim(words.clone()));
+   }
+
+   /**
+    * Return the compact form of the set.
+    *
+    * @return the compact form of the set
+    * @see #valueOf(long[])
+    */
+   public long[] toLongArray() {
+      return trim(words.clone());
+   }
+
+   private static long[] trim(long[] words) {
+      int length = words.length;
+      while (length > 0 && words[length - 1] == 0) {
+         length--;
+      }
+      return length == words.length ? words : Arrays.copyOf(words, length);
+   }
+
+   private void ensureCapacity(int wordCount) {
+      if (words.length < wordCount) {
+         words = Arrays.copyOf(words, Math.max(wordCount, 2 * words.length));
+      }
+   }
+
+   /**
+    * Return true if the set contains a country.
+    *
+    * @param country the country, which can be null
+    * @return true if the set contains the country
+    */
+   public boolean contains(Country country) {
+      int ordinal = Country.ordinalOf(country);
+      int word = ordinal >>> 6;
+      return ordinal >= 0 && word < words.length && (words[word] & (1L << ordinal)) != 0;
+   }
+
+   @Override
+   public boolean contains(Object o) {
+      return o instanceof Country && contains((Country) o);
+   }
+
+   /**
+    * Add a country to the set.
+    *
+    * @param country the country
+    * @return true if the set did not already contain the country
+    * @throws IllegalArgumentException if the country has not been added to the cache
+    */
+   @Override
+   public boolean add(Country country) {
+      int ordinal = Country.requireOrdinal(country);
+      int word = ordinal >>> 6;
+      ensureCapacity(word + 1);
+      long previous = words[word];
+      words[word] = previous | (1L << ordinal);
+      if (words[word] != previous) {
+         modCount++;
+         return true;
+      }
+      return false;
+   }
+
+   @Override
+   public boolean remove(Object o) {
+      if (!(o instanceof Country)) {
+         return false;
+      }
+      int ordinal = Country.ordinalOf((Country) o);
+      int word = ordinal >>> 6;
+      if (ordinal < 0 || word >= words.length) {
+         return false;
+      }
+      long previous = words[word];
+      words[word] = previous & ~(1L << ordinal);
+      if (words[word] != previous) {
+         modCount++;
+         return true;
+      }
+      return false;
+   }
+
+   @Override
+   public int size() {
+      int size = 0;
+      for (int i = 0; i < words.length; i++) {
+         size += Long.bitCount(words[i]);
+      }
+      return size;
+   }
+
+   @Override
+   public boolean isEmpty() {
+      for (int i = 0; i < words.length; i++) {
+         if (words[i] != 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   @Override
+   public void clear() {
+      Arrays.fill(words, 0);
+      modCount++;
+   }
+
+   @Override
+   public boolean addAll(Collection<? extends Country> c) {
+      if (!(c instanceof CountrySet)) {
+         return super.addAll(c);
+      }
+      long[] other = ((CountrySet) c).words;
+      ensureCapacity(other.length);
+      boolean changed = false;
+      for (int i = 0; i < other.length; i++) {
+         long previous = words[i];
+         words[i] = previous | other[i];
+         changed |= words[i] != previous;
+      }
+      if (changed) {
+         modCount++;
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean retainAll(Collection<?> c) {
+      if (!(c instanceof CountrySet)) {
+         return super.retainAll(c);
+      }
+      long[] other = ((CountrySet) c).words;
+      boolean changed = false;
+      for (int i = 0; i < words.length; i++) {
+         long previous = words[i];
+         words[i] = i < other.length ? previous & other[i] : 0;
+         changed |= words[i] != previous;
+      }
+      if (changed) {
+         modCount++;
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean removeAll(Collection<?> c) {
+      if (!(c instanceof CountrySet)) {
+         return super.removeAll(c);
+      }
+      long[] other = ((CountrySet) c).words;
+      int length = Math.min(words.length, other.length);
+      boolean changed = false;
+      for (int i = 0; i < length; i++) {
+         long previous = words[i];
+         words[i] = previous & ~other[i];
+         changed |= words[i] != previous;
+      }
+      if (changed) {
+         modCount++;
+      }
+      return changed;
+   }
+
+   @Override
+   public boolean containsAll(Collection<?> c) {
+      if (!(c instanceof CountrySet)) {
+         return super.containsAll(c);
+      }
+      long[] other = ((CountrySet) c).words;
+      for (int i = 0; i < other.length; i++) {
+         long word = i < words.length ? words[i] : 0;
+         if ((other[i] & ~word) != 0) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Return a new set containing the countries which are in this set or in another set.
+    *
+    * @param other the other set
+    * @return the union of the two sets
+    */
+   public CountrySet union(CountrySet other) {
+      CountrySet set = clone();
+      set.addAll(other);
+      return set;
+   }
+
+   /**
+    * Return a new set containing the countries which are both in this set and in another set.
+    *
+    * @param other the other set
+    * @return the intersection of the two sets
+    */
+   public CountrySet intersection(CountrySet other) {
+      CountrySet set = clone();
+      set.retainAll(other);
+      return set;
+   }
+
+   /**
+    * Return a new set containing the countries which are in this set but not in another set.
+    *
+    * @param other the other set
+    * @return the difference of the two sets
+    */
+   public CountrySet difference(CountrySet other) {
+      CountrySet set = clone();
+      set.removeAll(other);
+      return set;
+   }
+
+   @Override
+   public CountrySet clone() {
+      return new CountrySet(words.clone());
+   }
+
+   @Override
+   public boolean equals(Object o) {
+      if (o instanceof CountrySet) {
+         long[] other = ((CountrySet) o).words;
+         int length = Math.max(words.length, other.length);
+         for (int i = 0; i < length; i++) {
+            long word = i < words.length ? words[i] : 0;
+            long otherWord = i < other.length ? other[i] : 0;
+            if (word != otherWord) {
+               return false;
+            }
+         }
+         return true;
+      }
+      return super.equals(o);
+   }
+
+   @Override
+   public int hashCode() {
+      return super.hashCode();
+   }
+
+   @Override
+   public Iterator<Country> iterator() {
+      return new CountryIterator();
+   }
+
+   private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      out.writeObject(toLongArray());
+   }
+
+   private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      words = trim(((long[]) in.readObject()).clone());
+   }
+
+   private class CountryIterator implements Iterator<Country> {
+      private int next;
+      private int last = -1;
+      private int expectedModCount = modCount;
+
+      private CountryIterator() {
+         next = nextOrdinal(0);
+      }
+
+      /**
+       * Return the first ordinal in the set which is greater than or equal to an ordinal, or -1 if there is none.
+       */
+      private int nextOrdinal(int from) {
+         int word = from >>> 6;
+         if (word >= words.length) {
+            return -1;
+         }
+         long bits = words[word] & (-1L << from);
+         while (true) {
+            if (bits != 0) {
+               return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            word++;
+            if (word >= words.length) {
+               return -1;
+            }
+            bits = words[word];
+         }
+      }
+
+      @Override
+      public boolean hasNext() {
+         return next >= 0;
+      }
+
+      @Override
+      public Country next() {
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+         if (next < 0) {
+            throw new NoSuchElementException();
+         }
+         last = next;
+         next = nextOrdinal(next + 1);
+         return Country.getCountryFromOrdinal(last);
+      }
+
+      @Override
+      public void remove() {
+         if (last < 0) {
+            throw new IllegalStateException();
+         }
+         if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+         }
+         words[last >>> 6] &= ~(1L << last);
+         last = -1;
+         modCount++;
+         expectedModCount = modCount;
+      }
+   }
+}
@@ -0,0 +1,174 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * The binary snapshot of the countries XML file. The snapshot is created at build time, and allows to load the
+ * countries without parsing the XML file. The format of the snapshot is:
+ * <ul>
+ * <li>the magic number and the version of the format, as an int and a short</li>
+ * <li>the number of countries, as an int</li>
+ * <li>for each country: the name, the alpha-2 code and the alpha-3 code as modified UTF-8 Strings, the numeric code as
+ * a short, the number of alternate names as a short, then each alternate name as a modified UTF-8 String</li>
+ * </ul>
+ *
+ * @since 0.3
+ */
+class CountrySnapshot {
+   /**
+    * The name of the snapshot resource.
+    */
+   static final String SNAPSHOT = "countries.bin";
+   private static final int MAGIC = 0x43495331;
+   private static final short VERSION = 1;
+
+   private CountrySnapshot() {
+   }
+
+   /**
+    * Create the snapshot from the countries XML file. The only argument is the path of the snapshot file.
+    *
+    * @param args the arguments
+    * @throws IOException if the file can not be written
+    */
+   public static void main(String[] args) throws IOException {
+      if (args.length != 1) {
+         System.err.println("Usage: CountrySnapshot <snapshot file>");
+         System.exit(1);
+      }
+      CountryParser parser = new CountryParser();
+      List<Country> countries = parser.parseSpec();
+      if (countries.isEmpty()) {
+         throw new IOException("No countries found in the countries XML file");
+      }
+      File file = new File(args[0]);
+      try (OutputStream stream = new FileOutputStream(file)) {
+         writeSnapshot(countries, stream);
+      }
+      System.out.println("Wrote " + countries.size() + " countries to " + file);
+   }
+
+   /**
+    * Write a snapshot of a list of countries.
+    *
+    * @param countries the countries
+    * @param stream the stream
+    * @throws IOException if the snapshot can not be written
+    */
+   static void writeSnapshot(List<Country> countries, OutputStream stream) throws IOException {
+      DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+      out.writeInt(MAGIC);
+      out.writeShort(VERSION);
+      out.writeInt(countries.size());
+      Iterator<Country> it = countries.iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         out.writeUTF(country.getName());
+         out.writeUTF(country.getAlpha2());
+         out.writeUTF(country.getAlpha3());
+         out.writeShort(country.getNumericCode());
+         if (country.hasAlternateNames()) {
+            List<String> altNames = country.getAlternateNames();
+            out.writeShort(altNames.size());
+            Iterator<String> it2 = altNames.iterator();
+            while (it2.hasNext()) {
+               out.writeUTF(it2.next());
+            }
+         } else {
+            out.writeShort(0);
+         }
+      }
+      out.flush();
+   }
+
+   /**
+    * Read the snapshot resource.
+    *
+    * @return the countries, or null if the snapshot does not exist or is invalid
+    */
+   static List<Country> readSnapshot() {
+      InputStream stream = CountrySnapshot.class.getResourceAsStream(SNAPSHOT);
+      if (stream == null) {
+         return null;
+      }
+      try {
+         return readSnapshot(stream);
+      } catch (IOException ex) {
+         return null;
+      } finally {
+         try {
+            stream.close();
+         } catch (IOException ex) {
+         }
+      }
+   }
+
+   /**
+    * Read a snapshot.
+    *
+    * @param stream the stream
+    * @return the countries
+    * @throws IOException if the snapshot is invalid
+    */
+   static List<Country> readSnapshot(InputStream stream) throws IOException {
+      DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+      if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+         throw new IOException("Invalid countries snapshot");
+      }
+      int count = in.readInt();
+      List<Country> countries = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+         String name = in.readUTF();
+         String alpha2 = in.readUTF();
+         String alpha3 = in.readUTF();
+         int numeric = in.readShort();
+         int altCount = in.readShort();
+         List<String> altNames = null;
+         if (altCount > 0) {
+            altNames = new ArrayList<>(altCount);
+            for (int j = 0; j < altCount; j++) {
+               altNames.add(in.readUTF());
+            }
+         }
+         countries.add(new Country(name, altNames, alpha2, alpha3, numeric, i));
+      }
+      return countries;
+   }
+}
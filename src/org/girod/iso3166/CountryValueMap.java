@@ -0,0 +1,141 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+/**
+ * The common part of the maps from countries to primitive values, backed by a primitive array indexed by the country
+ * ordinals. The subclasses only hold the array of values, and this class keeps the set of the countries which have a
+ * value.
+ *
+ * @since 0.3
+ */
+abstract class CountryValueMap {
+   private final CountrySet keys = new CountrySet();
+
+   /**
+    * Return the length of the array of values.
+    *
+    * @return the length of the array
+    */
+   abstract int capacity();
+
+   /**
+    * Grow the array of values.
+    *
+    * @param capacity the new length of the array
+    */
+   abstract void resize(int capacity);
+
+   /**
+    * Set all the values to 0.
+    */
+   abstract void clearValues();
+
+   /**
+    * Return the index of the value of a country in the array of values, growing the array if necessary, and record
+    * that the country has a value.
+    *
+    * @param country the country
+    * @return the index of the value
+    * @throws IllegalArgumentException if the country has not been added to the cache
+    */
+   final int slot(Country country) {
+      int ordinal = Country.requireOrdinal(country);
+      int capacity = capacity();
+      if (ordinal >= capacity) {
+         resize(Math.max(ordinal + 1, 2 * capacity));
+      }
+      keys.add(country);
+      return ordinal;
+   }
+
+   /**
+    * Return the index of the value of a country in the array of values, or -1 if the country has no value in the
+    * array.
+    *
+    * @param country the country
+    * @return the index of the value
+    */
+   final int indexOf(Country country) {
+      int ordinal = Country.ordinalOf(country);
+      return ordinal < capacity() ? ordinal : -1;
+   }
+
+   /**
+    * Record that a country has no value.
+    *
+    * @param country the country
+    */
+   final void removeKey(Country country) {
+      keys.remove(country);
+   }
+
+   /**
+    * Return true if there is a value for a country.
+    *
+    * @param country the country
+    * @return true if there is a value for the country
+    */
+   public boolean containsKey(Country country) {
+      return keys.contains(country);
+   }
+
+   /**
+    * Return the countries which have a value.
+    *
+    * @return the countries
+    */
+   public CountrySet keySet() {
+      return keys.clone();
+   }
+
+   /**
+    * Return the number of countries which have a value.
+    *
+    * @return the number of countries
+    */
+   public int size() {
+      return keys.size();
+   }
+
+   /**
+    * Return true if there are no values.
+    *
+    * @return true if there are no values
+    */
+   public boolean isEmpty() {
+      return keys.isEmpty();
+   }
+
+   /**
+    * Remove all the values.
+    */
+   public void clear() {
+      clearValues();
+      keys.clear();
+   }
+}
@@ -0,0 +1,87 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+/**
+ * The result of a fuzzy lookup of a country name.
+ *
+ * @since 0.3
+ */
+public final class FuzzyMatch {
+   private final Country country;
+   private final String name;
+   private final int distance;
+   private final double score;
+
+   FuzzyMatch(Country country, String name, int distance, double score) {
+      this.country = country;
+      this.name = name;
+      this.distance = distance;
+      this.score = score;
+   }
+
+   /**
+    * Return the matching country.
+    *
+    * @return the country
+    */
+   public Country getCountry() {
+      return country;
+   }
+
+   /**
+    * Return the normalized name or alternate name of the country which matched.
+    *
+    * @return the normalized name
+    */
+   public String getMatchedName() {
+      return name;
+   }
+
+   /**
+    * Return the edit distance between the normalized searched name and the matched name.
+    *
+    * @return the edit distance
+    */
+   public int getDistance() {
+      return distance;
+   }
+
+   /**
+    * Return the score of the match, between 0 and 1. The score is 1 for an exact match.
+    *
+    * @return the score
+    */
+   public double getScore() {
+      return score;
+   }
+
+   @Override
+   public String toString() {
+      return country.getName() + " (" + name + ", distance " + distance + ", score " + score + ")";
+   }
+}
@@ -0,0 +1,404 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * An index of the ISO 3166-3 countries whose codes have been withdrawn, by code and validity period, and of the dates
+ * at which the codes of the current countries were assigned. The index is read from the historical XML file on the
+ * first time-aware lookup. The index has one array of periods and one assignment date per code, indexed as the codes
+ * tables of the countries cache, so a lookup is an array access followed by the scan of the few periods of the code.
+ *
+ * <p>The codes of the current countries which have no assignment date in the file, which includes all the codes
+ * assigned by the first edition of ISO 3166 in 1974, are considered to be valid at any date.</p>
+ *
+ * @since 0.3
+ */
+class HistoricalIndex {
+   private static final Object LOCK = new Object();
+   private static volatile HistoricalIndex INDEX = null;
+   private static final Period[] NO_PERIODS = new Period[0];
+   private final List<Country> countries;
+   private final Period[][] alpha2 = new Period[26 * 26][];
+   private final Period[][] alpha3 = new Period[26 * 26 * 26][];
+   private final Period[][] numeric = new Period[1000][];
+   /**
+    * The days from which the codes of the current countries are valid, as numbers of days since the epoch.
+    */
+   private final long[] alpha2From = new long[26 * 26];
+   private final long[] alpha3From = new long[26 * 26 * 26];
+   private final long[] numericFrom = new long[1000];
+
+   private HistoricalIndex(Parser parser) {
+      List<Country> list = new ArrayList<>(parser.periods.size());
+      Iterator<Period> it = parser.periods.iterator();
+      while (it.hasNext()) {
+         Period period = it.next();
+         Country country = period.country;
+         list.add(country);
+         add(alpha2, Country.Cache.alpha2Index(country.getAlpha2()), period);
+         add(alpha3, Country.Cache.alpha3Index(country.getAlpha3()), period);
+         add(numeric, country.getNumericCode(), period);
+      }
+      countries = list;
+      fill(alpha2);
+      fill(alpha3);
+      fill(numeric);
+      Arrays.fill(alpha2From, Long.MIN_VALUE);
+      Arrays.fill(alpha3From, Long.MIN_VALUE);
+      Arrays.fill(numericFrom, Long.MIN_VALUE);
+      Iterator<Assignment> it2 = parser.assignments.iterator();
+      while (it2.hasNext()) {
+         Assignment assignment = it2.next();
+         if (assignment.alpha2 != null) {
+            alpha2From[Country.Cache.alpha2Index(assignment.alpha2)] = assignment.from;
+         }
+         if (assignment.alpha3 != null) {
+            alpha3From[Country.Cache.alpha3Index(assignment.alpha3)] = assignment.from;
+         }
+         if (assignment.numeric >= 0) {
+            numericFrom[assignment.numeric] = assignment.from;
+         }
+      }
+   }
+
+   private static void add(Period[][] table, int index, Period period) {
+      if (index >= 0 && index < table.length) {
+         Period[] periods = table[index];
+         periods = periods == null ? new Period[1] : Arrays.copyOf(periods, periods.length + 1);
+         periods[periods.length - 1] = period;
+         table[index] = periods;
+      }
+   }
+
+   private static void fill(Period[][] table) {
+      for (int i = 0; i < table.length; i++) {
+         if (table[i] == null) {
+            table[i] = NO_PERIODS;
+         }
+      }
+   }
+
+   /**
+    * Return the index, reading the historical XML file on the first call.
+    *
+    * @return the index
+    * @throws IllegalStateException if the historical XML file can not be read
+    */
+   static HistoricalIndex getIndex() {
+      HistoricalIndex index = INDEX;
+      if (index == null) {
+         synchronized (LOCK) {
+            index = INDEX;
+            if (index == null) {
+               Parser parser = new Parser();
+               parser.parseSpec();
+               index = new HistoricalIndex(parser);
+               INDEX = index;
+            }
+         }
+      }
+      return index;
+   }
+
+   /**
+    * Return the historical countries, in the order of the historical XML file.
+    *
+    * @return the countries
+    */
+   List<Country> getCountries() {
+      return countries;
+   }
+
+   private static Country find(Period[] periods, long day) {
+      for (int i = 0; i < periods.length; i++) {
+         Period period = periods[i];
+         if (day >= period.from && day < period.to) {
+            return period.country;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Return the country of an alpha-2 code at a date: the historical country whose code was valid at this date, else
+    * the current country of the code if the code was already assigned at this date, else null.
+    *
+    * @param cache the cache of the current countries
+    * @param alpha2 the alpha-2 code
+    * @param day the date as a number of days since the epoch
+    * @return the country
+    */
+   Country getCountryFromAlpha2(Country.Cache cache, String alpha2, long day) {
+      int index = Country.Cache.alpha2Index(alpha2);
+      if (index < 0) {
+         return null;
+      }
+      Country country = find(this.alpha2[index], day);
+      if (country == null && day >= alpha2From[index]) {
+         country = cache.getCountryFromAlpha2(alpha2);
+      }
+      return country;
+   }
+
+   /**
+    * Return the country of an alpha-3 code at a date: the historical country whose code was valid at this date, else
+    * the current country of the code if the code was already assigned at this date, else null.
+    *
+    * @param cache the cache of the current countries
+    * @param alpha3 the alpha-3 code
+    * @param day the date as a number of days since the epoch
+    * @return the country
+    */
+   Country getCountryFromAlpha3(Country.Cache cache, String alpha3, long day) {
+      int index = Country.Cache.alpha3Index(alpha3);
+      if (index < 0) {
+         return null;
+      }
+      Country country = find(this.alpha3[index], day);
+      if (country == null && day >= alpha3From[index]) {
+         country = cache.getCountryFromAlpha3(alpha3);
+      }
+      return country;
+   }
+
+   /**
+    * Return the country of a numeric code at a date: the historical country whose code was valid at this date, else
+    * the current country of the code if the code was already assigned at this date, else null.
+    *
+    * @param cache the cache of the current countries
+    * @param numeric the numeric code
+    * @param day the date as a number of days since the epoch
+    * @return the country
+    */
+   Country getCountryFromNumeric(Country.Cache cache, int numeric, long day) {
+      if (numeric < 0 || numeric >= this.numeric.length) {
+         return null;
+      }
+      Country country = find(this.numeric[numeric], day);
+      if (country == null && day >= numericFrom[numeric]) {
+         country = cache.getCountryFromNumeric(numeric);
+      }
+      return country;
+   }
+
+   /**
+    * Return the country of a code at a date. The historical countries are not indexed by name, so a name is looked up
+    * in the current countries only.
+    *
+    * @param cache the cache of the current countries
+    * @param type the type of the code
+    * @param code the code
+    * @param day the date as a number of days since the epoch
+    * @return the country
+    */
+   Country getCountry(Country.Cache cache, CodeType type, String code, long day) {
+      switch (type) {
+         case ALPHA2:
+            return getCountryFromAlpha2(cache, code, day);
+         case ALPHA3:
+            return getCountryFromAlpha3(cache, code, day);
+         case NUMERIC:
+            return getCountryFromNumeric(cache, Country.Cache.numericIndex(code), day);
+         case ISO31662:
+            if (code == null || !code.startsWith(Country.ISO31662_PREFIX)) {
+               return null;
+            }
+            return getCountryFromAlpha2(cache, code.substring(Country.ISO31662_PREFIX.length()), day);
+         default:
+            return type.getCountry(cache, code);
+      }
+   }
+
+   /**
+    * The validity period of a historical country.
+    */
+   private static final class Period {
+      /**
+       * The first day of validity, inclusive, as a number of days since the epoch.
+       */
+      private final long from;
+      /**
+       * The day of the withdrawal, exclusive, as a number of days since the epoch.
+       */
+      private final long to;
+      private final Country country;
+
+      private Period(long from, long to, Country country) {
+         this.from = from;
+         this.to = to;
+         this.country = country;
+      }
+   }
+
+   /**
+    * The date from which some codes of a current country are valid.
+    */
+   private static final class Assignment {
+      private final String alpha2;
+      private final String alpha3;
+      private final int numeric;
+      /**
+       * The first day of validity, inclusive, as a number of days since the epoch.
+       */
+      private final long from;
+
+      private Assignment(String alpha2, String alpha3, int numeric, long from) {
+         this.alpha2 = alpha2;
+         this.alpha3 = alpha3;
+         this.numeric = numeric;
+         this.from = from;
+      }
+   }
+
+   /**
+    * Parse the historical XML file.
+    */
+   private static final class Parser extends DefaultHandler {
+      private final List<Period> periods = new ArrayList<>();
+      private final List<Assignment> assignments = new ArrayList<>();
+      private String name = null;
+      private String alpha2 = null;
+      private String alpha3 = null;
+      private int numeric = -1;
+      private long from = Long.MIN_VALUE;
+      private long to = Long.MAX_VALUE;
+      private List<String> altNames = null;
+
+      private void parseSpec() {
+         SAXParserFactory factory = SAXParserFactory.newInstance();
+         try {
+            SAXParser parser = factory.newSAXParser();
+            InputStream stream = HistoricalIndex.class.getResourceAsStream("historical.xml");
+            if (stream == null) {
+               throw new IOException("The historical.xml file is missing");
+            }
+            try {
+               parser.parse(stream, this);
+            } finally {
+               stream.close();
+            }
+         } catch (ParserConfigurationException | SAXException | IOException ex) {
+            throw new IllegalStateException("Could not read the historical countries: " + ex.getMessage(), ex);
+         }
+      }
+
+      @Override
+      public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
+         if (qName.equals("country")) {
+            parseCountry(attrs);
+         } else if (qName.equals("assigned")) {
+            parseAssignment(attrs);
+         } else if (qName.equals("altName")) {
+            String altName = attrs.getValue("name");
+            if (altName != null) {
+               if (altNames == null) {
+                  altNames = new ArrayList<>();
+               }
+               altNames.add(altName);
+            }
+         }
+      }
+
+      @Override
+      public void endElement(String uri, String localName, String qName) throws SAXException {
+         if (qName.equals("country")) {
+            Country country = new Country(name, altNames, alpha2, alpha3, numeric, false);
+            periods.add(new Period(from, to, country));
+         }
+      }
+
+      private void parseCountry(Attributes attrs) throws SAXException {
+         name = attrs.getValue("name");
+         alpha2 = attrs.getValue("alpha2");
+         alpha3 = attrs.getValue("alpha3");
+         altNames = null;
+         if (name == null || Country.Cache.alpha2Index(alpha2) < 0 || Country.Cache.alpha3Index(alpha3) < 0) {
+            throw new SAXException("Invalid historical country " + name + " " + alpha2 + " " + alpha3);
+         }
+         // some historical countries had no numeric code
+         String value = attrs.getValue("numeric");
+         numeric = parseNumeric(value);
+         if (value != null && numeric < 0) {
+            throw new SAXException("Invalid numeric code for the historical country " + name);
+         }
+         from = parseDate(attrs.getValue("validFrom"), false, Long.MIN_VALUE);
+         to = parseDate(attrs.getValue("validTo"), true, Long.MAX_VALUE);
+      }
+
+      private void parseAssignment(Attributes attrs) throws SAXException {
+         String assignedAlpha2 = attrs.getValue("alpha2");
+         String assignedAlpha3 = attrs.getValue("alpha3");
+         String value = attrs.getValue("numeric");
+         int assignedNumeric = value == null ? -1 : parseNumeric(value);
+         if ((assignedAlpha2 != null && Country.Cache.alpha2Index(assignedAlpha2) < 0)
+            || (assignedAlpha3 != null && Country.Cache.alpha3Index(assignedAlpha3) < 0)
+            || (value != null && assignedNumeric < 0)) {
+            throw new SAXException("Invalid assigned codes " + assignedAlpha2 + " " + assignedAlpha3 + " " + value);
+         }
+         long assignedFrom = parseDate(attrs.getValue("validFrom"), false, Long.MIN_VALUE);
+         assignments.add(new Assignment(assignedAlpha2, assignedAlpha3, assignedNumeric, assignedFrom));
+      }
+
+      private static int parseNumeric(String value) {
+         return value == null ? -1 : Country.Cache.numericIndex(value);
+      }
+
+      /**
+       * Parse a date or a year. A year stands for its first day if it is the start of a period, and for the first day
+       * of the next year if it is the end of a period, so that the whole year is in the period.
+       */
+      private static long parseDate(String value, boolean end, long defaultValue) throws SAXException {
+         if (value == null) {
+            return defaultValue;
+         }
+         try {
+            if (value.length() == 4) {
+               int year = Integer.parseInt(value);
+               return LocalDate.of(end ? year + 1 : year, 1, 1).toEpochDay();
+            }
+            return LocalDate.parse(value).toEpochDay();
+         } catch (NumberFormatException | DateTimeException e) {
+            throw new SAXException("Invalid date " + value, e);
+         }
+      }
+   }
+}
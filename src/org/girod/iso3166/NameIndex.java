@@ -0,0 +1,111 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An immutable index of countries or subdivisions by their normalized name. The lookups normalize the name in a buffer
+ * reused by the current thread, so they do not create any object.
+ *
+ * @param <T> the type of the indexed values
+ * @since 0.3
+ */
+final class NameIndex<T> {
+   private final String[] keys;
+   private final Object[] values;
+   private final int mask;
+
+   /**
+    * Constructor.
+    *
+    * @param valueByName the values by their normalized name, as returned by {@link NameNormalizer#normalize(CharSequence)}
+    */
+   NameIndex(Map<String, T> valueByName) {
+      int capacity = Integer.highestOneBit(Math.max(2, valueByName.size() * 2 - 1)) << 1;
+      keys = new String[capacity];
+      values = new Object[capacity];
+      mask = capacity - 1;
+      Iterator<Map.Entry<String, T>> it = valueByName.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, T> entry = it.next();
+         add(entry.getKey(), entry.getValue());
+      }
+   }
+
+   private void add(String key, T value) {
+      int slot = spread(key.hashCode()) & mask;
+      while (keys[slot] != null) {
+         slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      values[slot] = value;
+   }
+
+   private static int spread(int hash) {
+      return hash ^ (hash >>> 16);
+   }
+
+   /**
+    * Return the value of a name, ignoring the case, the diacritics, the punctuation and the whitespaces.
+    *
+    * @param name the name
+    * @return the value, or null if there is no value for this name
+    */
+   @SuppressWarnings("unchecked")
+   T get(CharSequence name) {
+      if (name == null) {
+         return null;
+      }
+      char[] buffer = NameNormalizer.getBuffer(name.length());
+      int length = NameNormalizer.normalize(name, buffer);
+      int hash = 0;
+      for (int i = 0; i < length; i++) {
+         hash = 31 * hash + buffer[i];
+      }
+      int slot = spread(hash) & mask;
+      while (true) {
+         String key = keys[slot];
+         if (key == null) {
+            return null;
+         } else if (key.length() == length && matches(key, buffer, length)) {
+            return (T) values[slot];
+         }
+         slot = (slot + 1) & mask;
+      }
+   }
+
+   private static boolean matches(String key, char[] buffer, int length) {
+      for (int i = 0; i < length; i++) {
+         if (key.charAt(i) != buffer[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,263 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.text.Normalizer;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Normalize country names so that they can be compared regardless of the case, the diacritics, the punctuation and the
+ * whitespaces. For example "  CÔTE D'IVOIRE " and "Cote dIvoire" are both normalized to "cote divoire":
+ * <ul>
+ * <li>letters are converted to lower case and their diacritics are removed</li>
+ * <li>apostrophes and combining marks are removed, so a name in the decomposed form (NFD) has the same normalized form
+ * as the same name in the composed form</li>
+ * <li>every sequence of punctuation and whitespace characters is replaced by one space, and leading or trailing
+ * spaces are removed</li>
+ * </ul>
+ *
+ * <p>The letters of the Latin, Greek and Cyrillic scripts are folded with precomputed tables, so the normalization
+ * creates no objects. The letters of the other scripts are only converted to lower case, and keep their diacritics.</p>
+ *
+ * @since 0.3
+ */
+final class NameNormalizer {
+   private static final int FOLD_TABLE_SIZE = 0x250;
+   private static final String SEPARATOR = null;
+   private static final String REMOVED = "";
+   /**
+    * The value of the fold tables for the characters which are not letters or digits.
+    */
+   private static final char NOT_LETTER = 0;
+   /**
+    * The normalized value of the characters from U+0000 to U+024F (Basic Latin to Latin Extended-B).
+    */
+   private static final String[] FOLD_TABLE = createFoldTable();
+   private static final char GREEK_CYRILLIC_START = 0x0370;
+   private static final char GREEK_CYRILLIC_END = 0x0530;
+   /**
+    * The normalized value of the characters of the Greek and Coptic, Cyrillic and Cyrillic Supplement blocks (U+0370 to
+    * U+052F).
+    */
+   private static final char[] GREEK_CYRILLIC_TABLE = createFoldTable(GREEK_CYRILLIC_START, GREEK_CYRILLIC_END);
+   private static final char ADDITIONAL_START = 0x1E00;
+   private static final char ADDITIONAL_END = 0x2000;
+   /**
+    * The normalized value of the characters of the Latin Extended Additional and Greek Extended blocks (U+1E00 to
+    * U+1FFF), which contain the letters with several diacritics such as the Vietnamese letters or the polytonic Greek
+    * letters.
+    */
+   private static final char[] ADDITIONAL_TABLE = createFoldTable(ADDITIONAL_START, ADDITIONAL_END);
+   private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<>();
+
+   private NameNormalizer() {
+   }
+
+   private static String[] createFoldTable() {
+      String[] table = new String[FOLD_TABLE_SIZE];
+      for (char c = 0; c < FOLD_TABLE_SIZE; c++) {
+         if (c == '\'') {
+            table[c] = REMOVED;
+         } else if (Character.isLetterOrDigit(c)) {
+            String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+            char base = decomposed.charAt(0);
+            table[c] = String.valueOf(Character.toLowerCase(base));
+         } else {
+            table[c] = SEPARATOR;
+         }
+      }
+      // letters which have no canonical decomposition
+      table['Æ'] = "ae";
+      table['æ'] = "ae";
+      table['Ø'] = "o";
+      table['ø'] = "o";
+      table['ß'] = "ss";
+      table['Đ'] = "d";
+      table['đ'] = "d";
+      table['ı'] = "i";
+      table['Ł'] = "l";
+      table['ł'] = "l";
+      table['Œ'] = "oe";
+      table['œ'] = "oe";
+      return table;
+   }
+
+   private static char[] createFoldTable(char start, char end) {
+      char[] table = new char[end - start];
+      for (int i = 0; i < table.length; i++) {
+         char c = (char) (start + i);
+         table[i] = Character.isLetterOrDigit(c) ? foldLetter(c) : NOT_LETTER;
+      }
+      return table;
+   }
+
+   /**
+    * Return the lower-case form of a letter without its diacritics. The letter is decomposed, and if the decomposition
+    * is a base character followed by combining marks, the base character is used. Note that this method creates
+    * objects, so it is only used to create the fold tables.
+    *
+    * @param c the letter
+    * @return the normalized letter
+    */
+   private static char foldLetter(char c) {
+      String decomposed = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD);
+      for (int i = 1; i < decomposed.length(); i++) {
+         if (!isMark(decomposed.charAt(i))) {
+            return Character.toLowerCase(c);
+         }
+      }
+      return Character.toLowerCase(decomposed.charAt(0));
+   }
+
+   /**
+    * Return the normalized form of a character which is not in the Basic Latin to Latin Extended-B table, or
+    * {@link #NOT_LETTER} if it is not a letter or a digit.
+    *
+    * @param c the character
+    * @return the normalized character
+    */
+   private static char fold(char c) {
+      if (c >= GREEK_CYRILLIC_START && c < GREEK_CYRILLIC_END) {
+         return GREEK_CYRILLIC_TABLE[c - GREEK_CYRILLIC_START];
+      } else if (c >= ADDITIONAL_START && c < ADDITIONAL_END) {
+         return ADDITIONAL_TABLE[c - ADDITIONAL_START];
+      } else {
+         return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : NOT_LETTER;
+      }
+   }
+
+   /**
+    * Return true if a character is a combining mark, such as the combining diacritics from U+0300 to U+036F.
+    *
+    * @param c the character
+    * @return true if the character is a combining mark
+    */
+   private static boolean isMark(char c) {
+      int type = Character.getType(c);
+      return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK
+         || type == Character.ENCLOSING_MARK;
+   }
+
+   /**
+    * Return a buffer which is large enough to contain the normalized form of a name of a specified length. The buffer
+    * is reused by the current thread for the next calls.
+    *
+    * @param length the length of the name
+    * @return the buffer
+    */
+   static char[] getBuffer(int length) {
+      char[] buffer = BUFFER.get();
+      if (buffer == null || buffer.length < 2 * length) {
+         buffer = new char[Math.max(64, 2 * length)];
+         BUFFER.set(buffer);
+      }
+      return buffer;
+   }
+
+   /**
+    * Return the normalized form of a name.
+    *
+    * @param name the name
+    * @return the normalized name
+    */
+   static String normalize(CharSequence name) {
+      char[] buffer = new char[2 * name.length()];
+      int length = normalize(name, buffer);
+      return new String(buffer, 0, length);
+   }
+
+   /**
+    * Normalize a name in a buffer. The buffer length must be at least twice the length of the name.
+    *
+    * @param name the name
+    * @param buffer the buffer
+    * @return the length of the normalized name
+    */
+   static int normalize(CharSequence name, char[] buffer) {
+      int length = 0;
+      boolean separator = false;
+      int count = name.length();
+      for (int i = 0; i < count; i++) {
+         char c = name.charAt(i);
+         if (c < FOLD_TABLE_SIZE) {
+            String folded = FOLD_TABLE[c];
+            if (folded == SEPARATOR) {
+               separator = true;
+            } else if (folded.length() != 0) {
+               if (separator && length != 0) {
+                  buffer[length++] = ' ';
+               }
+               separator = false;
+               buffer[length++] = folded.charAt(0);
+               if (folded.length() == 2) {
+                  buffer[length++] = folded.charAt(1);
+               }
+            }
+         } else if (c == '’' || c == 'ʼ' || isMark(c)) {
+            // apostrophes and combining marks are removed
+         } else {
+            char folded = fold(c);
+            if (folded == NOT_LETTER) {
+               separator = true;
+            } else {
+               if (separator && length != 0) {
+                  buffer[length++] = ' ';
+               }
+               separator = false;
+               buffer[length++] = folded;
+            }
+         }
+      }
+      return length;
+   }
+
+   /**
+    * Return the countries by their normalized name, sorted by normalized name. If several names have the same normalized
+    * form, the name of a country has priority over the alternate names of another country. Empty normalized names are
+    * ignored.
+    *
+    * @param countryByName the countries by their name or alternate name
+    * @return the countries by their normalized name
+    */
+   static SortedMap<String, Country> normalize(Map<String, Country> countryByName) {
+      SortedMap<String, Country> map = new TreeMap<>();
+      Iterator<Map.Entry<String, Country>> it = countryByName.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, Country> entry = it.next();
+         String name = entry.getKey();
+         Country country = entry.getValue();
+         String key = normalize(name);
+         if (!key.isEmpty() && (!map.containsKey(key) || name.equals(country.getName()))) {
+            map.put(key, country);
+         }
+      }
+      return map;
+   }
+}
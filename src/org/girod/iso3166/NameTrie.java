@@ -0,0 +1,197 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * An immutable prefix trie over the normalized names and alternate names of the countries. The trie is stored in flat
+ * arrays: the children of a node are contiguous and sorted by character, and each node references the range of its
+ * names in the sorted array of names. The names below a node are therefore found without scanning the other names.
+ *
+ * @since 0.3
+ */
+final class NameTrie {
+   private static final int ROOT = 0;
+   /**
+    * The character leading to each node.
+    */
+   private final char[] labels;
+   private final int[] firstChild;
+   private final int[] childCount;
+   /**
+    * The first index in the countries array of the names below each node.
+    */
+   private final int[] start;
+   /**
+    * The last index (exclusive) in the countries array of the names below each node.
+    */
+   private final int[] end;
+   /**
+    * The countries, sorted by their normalized name.
+    */
+   private final Country[] countries;
+   /**
+    * The number of nodes, only used during the construction of the trie.
+    */
+   private int nodeCount = 0;
+
+   /**
+    * Constructor.
+    *
+    * @param countryByName the countries by their name or alternate name
+    */
+   NameTrie(Map<String, Country> countryByName) {
+      SortedMap<String, Country> sorted = NameNormalizer.normalize(countryByName);
+      String[] keys = new String[sorted.size()];
+      countries = new Country[sorted.size()];
+      int capacity = 1;
+      int i = 0;
+      Iterator<Map.Entry<String, Country>> it = sorted.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, Country> entry = it.next();
+         keys[i] = entry.getKey();
+         countries[i] = entry.getValue();
+         capacity += keys[i].length();
+         i++;
+      }
+      labels = new char[capacity];
+      firstChild = new int[capacity];
+      childCount = new int[capacity];
+      start = new int[capacity];
+      end = new int[capacity];
+      nodeCount = 1;
+      addNode(ROOT, keys, 0, keys.length, 0);
+   }
+
+   /**
+    * Set up a node and recursively create its children.
+    *
+    * @param node the node
+    * @param keys the sorted normalized names
+    * @param from the first name below the node
+    * @param to the last name (exclusive) below the node
+    * @param depth the depth of the node
+    */
+   private void addNode(int node, String[] keys, int from, int to, int depth) {
+      start[node] = from;
+      end[node] = to;
+      // only the first name can end on this node, because the names are sorted and unique
+      int first = from;
+      if (first < to && keys[first].length() == depth) {
+         first++;
+      }
+      int child = nodeCount;
+      firstChild[node] = child;
+      int i = first;
+      while (i < to) {
+         labels[nodeCount++] = keys[i].charAt(depth);
+         i = nextGroup(keys, i, to, depth);
+      }
+      childCount[node] = nodeCount - child;
+      i = first;
+      while (i < to) {
+         int next = nextGroup(keys, i, to, depth);
+         addNode(child++, keys, i, next, depth + 1);
+         i = next;
+      }
+   }
+
+   private static int nextGroup(String[] keys, int from, int to, int depth) {
+      char c = keys[from].charAt(depth);
+      int i = from + 1;
+      while (i < to && keys[i].charAt(depth) == c) {
+         i++;
+      }
+      return i;
+   }
+
+   private int findChild(int node, char c) {
+      int low = firstChild[node];
+      int high = low + childCount[node] - 1;
+      while (low <= high) {
+         int mid = (low + high) >>> 1;
+         char label = labels[mid];
+         if (label < c) {
+            low = mid + 1;
+         } else if (label > c) {
+            high = mid - 1;
+         } else {
+            return mid;
+         }
+      }
+      return -1;
+   }
+
+   /**
+    * Return the countries whose normalized name or alternate name starts with the normalized form of a prefix. The
+    * countries are ranked by the alphabetical order of their normalized names, so a name which is equal to the prefix
+    * comes first. Each country is returned only once.
+    *
+    * @param prefix the prefix
+    * @param limit the maximum number of countries
+    * @return the countries
+    */
+   List<Country> findByPrefix(CharSequence prefix, int limit) {
+      if (prefix == null || limit <= 0) {
+         return Collections.emptyList();
+      }
+      char[] buffer = NameNormalizer.getBuffer(prefix.length());
+      int length = NameNormalizer.normalize(prefix, buffer);
+      int node = ROOT;
+      for (int i = 0; i < length; i++) {
+         node = findChild(node, buffer[i]);
+         if (node < 0) {
+            return Collections.emptyList();
+         }
+      }
+      int from = start[node];
+      int to = end[node];
+      List<Country> list = new ArrayList<>(Math.min(limit, to - from));
+      for (int i = from; i < to && list.size() < limit; i++) {
+         Country country = countries[i];
+         if (!contains(list, country)) {
+            list.add(country);
+         }
+      }
+      return list;
+   }
+
+   private static boolean contains(List<Country> list, Country country) {
+      for (int i = 0; i < list.size(); i++) {
+         if (list.get(i) == country) {
+            return true;
+         }
+      }
+      return false;
+   }
+}
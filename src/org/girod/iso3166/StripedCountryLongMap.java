@@ -0,0 +1,157 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A map from countries to long counters which can be incremented by many threads without contention, even when they
+ * increment the counter of the same country. Each country has its own {@link LongAdder}, in chunks of adders indexed by
+ * the country ordinals. The countries without a counter have a value of 0.
+ *
+ * <p>The adders of a chunk are all created with the chunk, and a chunk is never replaced once it has been published,
+ * so an increment is never lost when the map grows for new custom countries.</p>
+ *
+ * <p>Reading a value sums the cells of its LongAdder, so reads are slower than for an {@link AtomicCountryLongMap}.</p>
+ *
+ * @since 0.3
+ */
+public class StripedCountryLongMap {
+   /**
+    * The number of adders in a chunk.
+    */
+   private static final int CHUNK_SIZE = 64;
+   private static final int CHUNK_SHIFT = 6;
+   private volatile LongAdder[][] chunks;
+
+   /**
+    * Create an empty map.
+    */
+   public StripedCountryLongMap() {
+      LongAdder[][] current = new LongAdder[(Country.getOrdinalCount() >>> CHUNK_SHIFT) + 1][];
+      for (int i = 0; i < current.length; i++) {
+         current[i] = newChunk();
+      }
+      chunks = current;
+   }
+
+   private static LongAdder[] newChunk() {
+      LongAdder[] chunk = new LongAdder[CHUNK_SIZE];
+      for (int i = 0; i < CHUNK_SIZE; i++) {
+         chunk[i] = new LongAdder();
+      }
+      return chunk;
+   }
+
+   private LongAdder getAdder(int ordinal) {
+      int index = ordinal >>> CHUNK_SHIFT;
+      LongAdder[][] current = chunks;
+      LongAdder[] chunk = index < current.length ? current[index] : createChunk(index);
+      return chunk[ordinal & (CHUNK_SIZE - 1)];
+   }
+
+   private synchronized LongAdder[] createChunk(int index) {
+      LongAdder[][] current = chunks;
+      if (index >= current.length) {
+         int length = current.length;
+         current = Arrays.copyOf(current, index + 1);
+         for (int i = length; i < current.length; i++) {
+            current[i] = newChunk();
+         }
+         // the volatile write publishes the new chunks with all their adders
+         chunks = current;
+      }
+      return current[index];
+   }
+
+   /**
+    * Return the value associated with a country.
+    *
+    * @param country the country
+    * @return the value
+    */
+   public long get(Country country) {
+      int ordinal = Country.ordinalOf(country);
+      int index = ordinal >>> CHUNK_SHIFT;
+      LongAdder[][] current = chunks;
+      return ordinal >= 0 && index < current.length ? current[index][ordinal & (CHUNK_SIZE - 1)].sum() : 0;
+   }
+
+   /**
+    * Add a value to the counter of a country.
+    *
+    * @param country the country
+    * @param delta the value to add
+    */
+   public void add(Country country, long delta) {
+      getAdder(Country.requireOrdinal(country)).add(delta);
+   }
+
+   /**
+    * Increment the counter of a country.
+    *
+    * @param country the country
+    */
+   public void increment(Country country) {
+      getAdder(Country.requireOrdinal(country)).increment();
+   }
+
+   /**
+    * Reset all the counters to 0. The reset is not atomic if the counters are updated concurrently.
+    */
+   public void reset() {
+      LongAdder[][] current = chunks;
+      for (int i = 0; i < current.length; i++) {
+         for (int j = 0; j < CHUNK_SIZE; j++) {
+            current[i][j].reset();
+         }
+      }
+   }
+
+   /**
+    * Return a copy of the current values. The copy is not an atomic snapshot if the values are updated concurrently.
+    *
+    * @return the copy of the values
+    */
+   public CountryLongMap toCountryLongMap() {
+      CountryLongMap map = new CountryLongMap();
+      LongAdder[][] current = chunks;
+      for (int i = 0; i < current.length; i++) {
+         for (int j = 0; j < CHUNK_SIZE; j++) {
+            long value = current[i][j].sum();
+            if (value != 0) {
+               Country country = Country.getCountryFromOrdinal((i << CHUNK_SHIFT) + j);
+               if (country != null) {
+                  map.put(country, value);
+               }
+            }
+         }
+      }
+      return map;
+   }
+}
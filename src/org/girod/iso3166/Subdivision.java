@@ -0,0 +1,223 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An ISO 3166-2 subdivision of a country, such as a state or a region. The subdivisions are read from the
+ * subdivisions XML file on the first use of this class, so they have no cost for the applications which only use the
+ * countries. The file only contains the subdivisions of some countries: the states of the United States, the provinces
+ * and territories of Canada, the states of Germany, and the regions, departments and collectivities of France.
+ *
+ * @since 0.3
+ */
+public final class Subdivision {
+   private static final Object LOCK = new Object();
+   private static volatile Index INDEX = null;
+   private final String code;
+   private final String name;
+   private final String category;
+   private final String countryCode;
+   private final String formerCode;
+
+   /**
+    * Constructor.
+    *
+    * @param code the subdivision code, made of the alpha-2 code of the country, a hyphen, and up to 3 characters
+    * @param name the subdivision name
+    * @param category the subdivision category, for example "state" or "province"
+    * @param formerCode the former code of the subdivision, or null
+    */
+   Subdivision(String code, String name, String category, String formerCode) {
+      this.code = code;
+      this.name = name;
+      this.category = category;
+      this.countryCode = code.substring(0, 2);
+      this.formerCode = formerCode;
+   }
+
+   /**
+    * Return the subdivision code, for example "US-CA".
+    *
+    * @return the code
+    */
+   public String getCode() {
+      return code;
+   }
+
+   /**
+    * Return the subdivision name.
+    *
+    * @return the name
+    */
+   public String getName() {
+      return name;
+   }
+
+   /**
+    * Return the former code of the subdivision, for example "FR-75" for "FR-75C". Return null if the code of the
+    * subdivision has not changed.
+    *
+    * @return the former code
+    */
+   public String getFormerCode() {
+      return formerCode;
+   }
+
+   /**
+    * Return the subdivision category, for example "state" or "province". Return null if the category is not known.
+    *
+    * @return the category
+    */
+   public String getCategory() {
+      return category;
+   }
+
+   /**
+    * Return the alpha-2 code of the country of the subdivision.
+    *
+    * @return the alpha-2 code of the country
+    */
+   public String getCountryCode() {
+      return countryCode;
+   }
+
+   /**
+    * Return the country of the subdivision.
+    *
+    * @return the country
+    */
+   public Country getCountry() {
+      return Country.getCountryFromAlpha2(countryCode);
+   }
+
+   @Override
+   public String toString() {
+      return code;
+   }
+
+   private static Index getIndex() {
+      Index index = INDEX;
+      if (index == null) {
+         synchronized (LOCK) {
+            index = INDEX;
+            if (index == null) {
+               index = new Index(new SubdivisionParser().parseSpec());
+               INDEX = index;
+            }
+         }
+      }
+      return index;
+   }
+
+   /**
+    * Return the subdivision of a specified code, for example "FR-IDF". A former code returns the subdivision which
+    * has replaced it, for example "FR-75" returns "FR-75C". Return null if there is no subdivision for this code.
+    *
+    * @param code the subdivision code
+    * @return the subdivision
+    */
+   public static Subdivision getSubdivision(String code) {
+      return getIndex().byCode.get(code);
+   }
+
+   /**
+    * Return the subdivisions of a country, in the order of the subdivisions XML file. Return an empty list if there is
+    * no subdivision for this country.
+    *
+    * @param country the country
+    * @return the subdivisions
+    */
+   public static List<Subdivision> getSubdivisions(Country country) {
+      List<Subdivision> list = getIndex().byCountry.get(country.getAlpha2());
+      return list != null ? list : Collections.<Subdivision>emptyList();
+   }
+
+   /**
+    * Return the subdivision of a country with a specified name, ignoring the case, the diacritics, the punctuation and
+    * the whitespaces. For example "ile de france" would return the subdivision of name "Île-de-France". Return null if
+    * there is no subdivision for this name.
+    *
+    * @param country the country
+    * @param name the subdivision name
+    * @return the subdivision
+    */
+   public static Subdivision getSubdivisionFromName(Country country, CharSequence name) {
+      NameIndex<Subdivision> index = getIndex().byName.get(country.getAlpha2());
+      return index != null ? index.get(name) : null;
+   }
+
+   /**
+    * The indexes of the subdivisions.
+    */
+   private static final class Index {
+      private final Map<String, Subdivision> byCode;
+      private final Map<String, List<Subdivision>> byCountry;
+      private final Map<String, NameIndex<Subdivision>> byName;
+
+      private Index(List<Subdivision> subdivisions) {
+         byCode = new HashMap<>(subdivisions.size() * 2);
+         byCountry = new HashMap<>();
+         Map<String, Map<String, Subdivision>> names = new HashMap<>();
+         Iterator<Subdivision> it = subdivisions.iterator();
+         while (it.hasNext()) {
+            Subdivision subdivision = it.next();
+            byCode.put(subdivision.code, subdivision);
+            if (subdivision.formerCode != null) {
+               byCode.put(subdivision.formerCode, subdivision);
+            }
+            List<Subdivision> list = byCountry.get(subdivision.countryCode);
+            Map<String, Subdivision> countryNames = names.get(subdivision.countryCode);
+            if (list == null) {
+               list = new ArrayList<>();
+               byCountry.put(subdivision.countryCode, list);
+               countryNames = new HashMap<>();
+               names.put(subdivision.countryCode, countryNames);
+            }
+            list.add(subdivision);
+            countryNames.put(NameNormalizer.normalize(subdivision.name), subdivision);
+         }
+         Iterator<Map.Entry<String, List<Subdivision>>> it2 = byCountry.entrySet().iterator();
+         while (it2.hasNext()) {
+            Map.Entry<String, List<Subdivision>> entry = it2.next();
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+         }
+         byName = new HashMap<>();
+         Iterator<Map.Entry<String, Map<String, Subdivision>>> it3 = names.entrySet().iterator();
+         while (it3.hasNext()) {
+            Map.Entry<String, Map<String, Subdivision>> entry = it3.next();
+            byName.put(entry.getKey(), new NameIndex<>(entry.getValue()));
+         }
+      }
+   }
+}
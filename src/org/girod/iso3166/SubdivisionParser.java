@@ -0,0 +1,112 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Parse the XML file of the ISO 3166-2 subdivisions.
+ *
+ * @since 0.3
+ */
+class SubdivisionParser extends DefaultHandler {
+   private final List<Subdivision> subdivisions = new ArrayList<>();
+
+   SubdivisionParser() {
+   }
+
+   /**
+    * Parse the subdivisions XML file.
+    *
+    * @return the subdivisions, in the order of the file
+    * @throws IllegalStateException if the subdivisions XML file can not be read
+    */
+   List<Subdivision> parseSpec() {
+      SAXParserFactory factory = SAXParserFactory.newInstance();
+      try {
+         SAXParser parser = factory.newSAXParser();
+         InputStream stream = this.getClass().getResourceAsStream("subdivisions.xml");
+         if (stream == null) {
+            throw new IOException("The subdivisions.xml file is missing");
+         }
+         try {
+            parser.parse(stream, this);
+         } finally {
+            stream.close();
+         }
+      } catch (ParserConfigurationException | SAXException | IOException ex) {
+         throw new IllegalStateException("Could not read the subdivisions: " + ex.getMessage(), ex);
+      }
+      return subdivisions;
+   }
+
+   @Override
+   public void startElement(String uri, String localName, String qName, Attributes attrs) throws SAXException {
+      if (qName.equals("subdivision")) {
+         parseSubdivision(attrs);
+      }
+   }
+
+   private void parseSubdivision(Attributes attr) throws SAXException {
+      String code = null;
+      String name = null;
+      String category = null;
+      String formerCode = null;
+
+      for (int i = 0; i < attr.getLength(); i++) {
+         String attrname = attr.getQName(i);
+         String attrvalue = attr.getValue(i);
+
+         if (attrname.equals("code")) {
+            code = attrvalue;
+         } else if (attrname.equals("name")) {
+            name = attrvalue;
+         } else if (attrname.equals("category")) {
+            category = attrvalue;
+         } else if (attrname.equals("formerCode")) {
+            formerCode = attrvalue;
+         }
+      }
+      if (!isCode(code) || name == null || (formerCode != null && !isCode(formerCode))) {
+         throw new SAXException("Invalid subdivision " + code + " " + name);
+      }
+      subdivisions.add(new Subdivision(code, name, category, formerCode));
+   }
+
+   private static boolean isCode(String code) {
+      return code != null && code.length() > 3 && code.length() <= 6 && code.charAt(2) == '-';
+   }
+}
@@ -0,0 +1,327 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * An immutable inverted index of the trigrams of the normalized countries names and alternate names, used to find the
+ * names which are close to a misspelled name. As an edit changes at most 3 trigrams of a name, the number of trigrams
+ * that a name shares with the searched name gives a lower bound of their edit distance. The edit distance is only
+ * computed for the names whose lower bound is below the best distance found so far, in the order of their Dice
+ * coefficient, so the result is the same as if the distance was computed for all the names.
+ *
+ * <p>The buffers used by a search are kept by the current thread and reused by its next searches.</p>
+ *
+ * @since 0.3
+ */
+final class TrigramIndex {
+   /**
+    * The scale of the Dice coefficients in the sort keys of the candidates.
+    */
+   private static final double DICE_SCALE = 1 << 30;
+   /**
+    * The maximum number of names in the index, so that the index of a name fits in 16 bits.
+    */
+   static final int MAX_NAMES = 1 << 16;
+   private static final char PADDING = ' ';
+   private static final ThreadLocal<Scratch> SCRATCH = new ThreadLocal<>();
+   private final String[] keys;
+   private final Country[] countries;
+   /**
+    * The number of distinct trigrams of each name.
+    */
+   private final int[] trigramCount;
+   /**
+    * The distinct trigrams of all the names, sorted.
+    */
+   private final long[] trigrams;
+   /**
+    * The start of the postings of each trigram in the postings array. The postings of the trigram at index i are
+    * between offsets[i] and offsets[i + 1].
+    */
+   private final int[] offsets;
+   /**
+    * The indexes of the names which contain each trigram.
+    */
+   private final int[] postings;
+
+   /**
+    * Constructor.
+    *
+    * @param countryByName the countries by their name or alternate name
+    * @throws IllegalArgumentException if there are more than {@link #MAX_NAMES} distinct normalized names
+    */
+   TrigramIndex(Map<String, Country> countryByName) {
+      SortedMap<String, Country> sorted = NameNormalizer.normalize(countryByName);
+      int size = sorted.size();
+      if (size > MAX_NAMES) {
+         throw new IllegalArgumentException("The trigram index can not contain more than " + MAX_NAMES + " names, found " + size);
+      }
+      keys = new String[size];
+      countries = new Country[size];
+      trigramCount = new int[size];
+      int total = 0;
+      int i = 0;
+      Iterator<Map.Entry<String, Country>> it = sorted.entrySet().iterator();
+      while (it.hasNext()) {
+         Map.Entry<String, Country> entry = it.next();
+         keys[i] = entry.getKey();
+         countries[i] = entry.getValue();
+         total += keys[i].length() + 2;
+         i++;
+      }
+      // each pair contains a trigram in the upper 48 bits and the index of the name in the lower 16 bits. The sign bit
+      // is flipped so that the signed order of the pairs is the order of the trigrams, even for the trigrams whose first
+      // character is U+8000 or above
+      long[] pairs = new long[total];
+      long[] buffer = new long[64];
+      int count = 0;
+      for (i = 0; i < size; i++) {
+         if (buffer.length < keys[i].length() + 2) {
+            buffer = new long[keys[i].length() + 2];
+         }
+         int n = getTrigrams(keys[i], keys[i].length(), buffer);
+         trigramCount[i] = n;
+         for (int j = 0; j < n; j++) {
+            pairs[count++] = ((buffer[j] << 16) | i) ^ Long.MIN_VALUE;
+         }
+      }
+      Arrays.sort(pairs, 0, count);
+      long[] allTrigrams = new long[count];
+      int[] allOffsets = new int[count + 1];
+      postings = new int[count];
+      int distinct = 0;
+      for (i = 0; i < count; i++) {
+         long pair = pairs[i] ^ Long.MIN_VALUE;
+         long trigram = pair >>> 16;
+         if (distinct == 0 || allTrigrams[distinct - 1] != trigram) {
+            allTrigrams[distinct] = trigram;
+            allOffsets[distinct] = i;
+            distinct++;
+         }
+         postings[i] = (int) (pair & 0xFFFF);
+      }
+      allOffsets[distinct] = count;
+      trigrams = Arrays.copyOf(allTrigrams, distinct);
+      offsets = Arrays.copyOf(allOffsets, distinct + 1);
+   }
+
+   /**
+    * Compute the distinct trigrams of a normalized name, padded with two spaces before and one space after the name.
+    * The trigrams are sorted in the buffer, which must have a length of at least the length of the name plus 2.
+    *
+    * @param name the normalized name
+    * @param length the length of the name
+    * @param buffer the buffer
+    * @return the number of distinct trigrams
+    */
+   private static int getTrigrams(CharSequence name, int length, long[] buffer) {
+      if (length == 0) {
+         return 0;
+      }
+      char c0 = PADDING;
+      char c1 = PADDING;
+      for (int i = 0; i <= length; i++) {
+         char c2 = i < length ? name.charAt(i) : PADDING;
+         buffer[i] = ((long) c0 << 32) | ((long) c1 << 16) | c2;
+         c0 = c1;
+         c1 = c2;
+      }
+      int count = length + 1;
+      Arrays.sort(buffer, 0, count);
+      int distinct = 1;
+      for (int i = 1; i < count; i++) {
+         if (buffer[i] != buffer[distinct - 1]) {
+            buffer[distinct++] = buffer[i];
+         }
+      }
+      return distinct;
+   }
+
+   /**
+    * The buffers of the searches of a thread.
+    */
+   private static final class Scratch {
+      private long[] trigrams = new long[64];
+      private int[] shared = new int[0];
+      private long[] candidates = new long[0];
+      private int[] previous = new int[64];
+      private int[] current = new int[64];
+   }
+
+   private static Scratch getScratch() {
+      Scratch scratch = SCRATCH.get();
+      if (scratch == null) {
+         scratch = new Scratch();
+         SCRATCH.set(scratch);
+      }
+      return scratch;
+   }
+
+   /**
+    * Return a lower bound of the edit distance between the searched name and a name of the index. An edit removes at
+    * most 3 distinct trigrams of a name and adds at most 3, so each name has at most 3 trigrams by edit which are not
+    * shared with the other name.
+    *
+    * @param name the index of the name
+    * @param length the length of the searched name
+    * @param queryCount the number of distinct trigrams of the searched name
+    * @param shared the number of distinct trigrams shared by the names
+    * @return the lower bound
+    */
+   private int lowerBound(int name, int length, int queryCount, int shared) {
+      int missing = Math.max(queryCount, trigramCount[name]) - shared;
+      return Math.max(Math.abs(keys[name].length() - length), (missing + 2) / 3);
+   }
+
+   /**
+    * Return the country whose normalized name or alternate name is the closest to a name.
+    *
+    * @param name the name
+    * @param maxDistance the maximum edit distance between the normalized name and the name of the country
+    * @return the match, or null if no name is within the maximum edit distance
+    */
+   FuzzyMatch find(CharSequence name, int maxDistance) {
+      if (name == null || maxDistance < 0) {
+         return null;
+      }
+      String key = NameNormalizer.normalize(name);
+      int length = key.length();
+      if (length == 0) {
+         return null;
+      }
+      Scratch scratch = getScratch();
+      if (scratch.trigrams.length < length + 2) {
+         scratch.trigrams = new long[length + 2];
+      }
+      if (scratch.shared.length < keys.length) {
+         scratch.shared = new int[keys.length];
+         scratch.candidates = new long[keys.length];
+      }
+      long[] queryTrigrams = scratch.trigrams;
+      int queryCount = getTrigrams(key, length, queryTrigrams);
+      int[] shared = scratch.shared;
+      Arrays.fill(shared, 0, keys.length, 0);
+      for (int i = 0; i < queryCount; i++) {
+         int index = Arrays.binarySearch(trigrams, queryTrigrams[i]);
+         if (index >= 0) {
+            for (int j = offsets[index]; j < offsets[index + 1]; j++) {
+               shared[postings[j]]++;
+            }
+         }
+      }
+      // keep the names which can be within the maximum distance. Each key contains the Dice coefficient in the upper
+      // bits, so that the keys are sorted by decreasing coefficient, and the index of the name in the lower 16 bits
+      long[] candidates = scratch.candidates;
+      int candidateCount = 0;
+      for (int i = 0; i < keys.length; i++) {
+         if (lowerBound(i, length, queryCount, shared[i]) <= maxDistance) {
+            double similarity = 2d * shared[i] / (queryCount + trigramCount[i]);
+            candidates[candidateCount++] = ((long) ((1d - similarity) * DICE_SCALE) << 16) | i;
+         }
+      }
+      Arrays.sort(candidates, 0, candidateCount);
+      // among the names at the same distance, the name with the best Dice coefficient is kept
+      int best = -1;
+      int bestDistance = maxDistance + 1;
+      for (int i = 0; i < candidateCount && bestDistance > 0; i++) {
+         int candidate = (int) (candidates[i] & 0xFFFF);
+         if (lowerBound(candidate, length, queryCount, shared[candidate]) >= bestDistance) {
+            continue;
+         }
+         int distance = distance(key, keys[candidate], bestDistance - 1);
+         if (distance < bestDistance) {
+            best = candidate;
+            bestDistance = distance;
+         }
+      }
+      if (best < 0) {
+         return null;
+      }
+      double score = 1d - (double) bestDistance / Math.max(length, keys[best].length());
+      return new FuzzyMatch(countries[best], keys[best], bestDistance, score);
+   }
+
+   /**
+    * Return the Levenshtein distance between two Strings, or maxDistance + 1 if the distance is greater than
+    * maxDistance. Only the cells within maxDistance of the diagonal are computed, in two rows which are reused by the
+    * next calls of the current thread.
+    *
+    * @param a the first String
+    * @param b the second String
+    * @param maxDistance the maximum distance
+    * @return the distance
+    */
+   static int distance(String a, String b, int maxDistance) {
+      int lengthA = a.length();
+      int lengthB = b.length();
+      if (maxDistance < 0 || Math.abs(lengthA - lengthB) > maxDistance) {
+         return maxDistance + 1;
+      }
+      int outside = maxDistance + 1;
+      Scratch scratch = getScratch();
+      if (scratch.previous.length < lengthB + 1) {
+         scratch.previous = new int[lengthB + 1];
+         scratch.current = new int[lengthB + 1];
+      }
+      int[] previous = scratch.previous;
+      int[] current = scratch.current;
+      for (int j = 0; j <= lengthB; j++) {
+         previous[j] = j <= maxDistance ? j : outside;
+      }
+      for (int i = 1; i <= lengthA; i++) {
+         int from = Math.max(1, i - maxDistance);
+         int to = Math.min(lengthB, i + maxDistance);
+         current[0] = i <= maxDistance ? i : outside;
+         if (from > 1) {
+            current[from - 1] = outside;
+         }
+         int rowMin = current[0];
+         char ca = a.charAt(i - 1);
+         for (int j = from; j <= to; j++) {
+            int cost = ca == b.charAt(j - 1) ? 0 : 1;
+            int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+            current[j] = Math.min(value, outside);
+            rowMin = Math.min(rowMin, current[j]);
+         }
+         if (to < lengthB) {
+            current[to + 1] = outside;
+         }
+         if (rowMin > maxDistance) {
+            return outside;
+         }
+         int[] swap = previous;
+         previous = current;
+         current = swap;
+      }
+      return previous[lengthB];
+   }
+}
@@ -0,0 +1,153 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the CodeValidator class.
+ *
+ * @since 0.3
+ */
+public class CodeValidatorTest {
+
+   public CodeValidatorTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check the validation of single codes.
+    */
+   @Test
+   public void testCodes() {
+      System.out.println("CodeValidatorTest : testCodes");
+      assertTrue("FR", CodeValidator.isValidAlpha2("FR"));
+      assertFalse("QQ", CodeValidator.isValidAlpha2("QQ"));
+      assertFalse("fr", CodeValidator.isValidAlpha2("fr"));
+      assertFalse("FRA", CodeValidator.isValidAlpha2("FRA"));
+      assertFalse("null", CodeValidator.isValidAlpha2(null));
+      assertTrue("DEU", CodeValidator.isValidAlpha3("DEU"));
+      assertFalse("DEX", CodeValidator.isValidAlpha3("DEX"));
+      assertFalse("D-U", CodeValidator.isValidAlpha3("D-U"));
+      assertTrue("250", CodeValidator.isValidNumeric("250"));
+      assertTrue("250", CodeValidator.isValidNumeric(250));
+      assertFalse("999", CodeValidator.isValidNumeric("999"));
+      assertFalse("-1", CodeValidator.isValidNumeric(-1));
+      assertFalse("1250", CodeValidator.isValidNumeric(1250));
+      assertFalse("2a0", CodeValidator.isValidNumeric("2a0"));
+
+      // the bitmasks are created again for the custom countries
+      assertFalse("VQ", CodeValidator.isValidAlpha2("VQ"));
+      new Country("Validator Country", "VQ", "VQV", 982);
+      assertTrue("VQ", CodeValidator.isValidAlpha2("VQ"));
+      assertTrue("VQV", CodeValidator.isValidAlpha3("VQV"));
+      assertTrue("982", CodeValidator.isValidNumeric(982));
+   }
+
+   /**
+    * Check the validation of columns of codes.
+    */
+   @Test
+   public void testColumns() {
+      System.out.println("CodeValidatorTest : testColumns");
+      String[] codes = {"FR", "US", "QQ", "fr", "DE", "1A"};
+      StringBuilder buf = new StringBuilder("xx");
+      for (int i = 0; i < 130; i++) {
+         buf.append(codes[i % codes.length]);
+      }
+      byte[] bytes = buf.toString().getBytes(StandardCharsets.US_ASCII);
+      long[] bitmap = CodeValidator.validateAlpha2(bytes, 2, 130);
+      assertEquals("Bitmap length", 3, bitmap.length);
+      int invalid = 0;
+      for (int i = 0; i < 130; i++) {
+         boolean valid = (bitmap[i >>> 6] & (1L << i)) != 0;
+         assertEquals("Code " + i, CodeValidator.isValidAlpha2(codes[i % codes.length]), valid);
+         invalid += valid ? 0 : 1;
+      }
+      assertEquals("Bits after the last code", 0L, bitmap[2] >>> 2);
+      long[] reused = new long[4];
+      Arrays.fill(reused, -1L);
+      assertEquals("Invalid codes", invalid, CodeValidator.validateAlpha2(bytes, 2, 130, reused));
+      assertArrayEquals("Bitmap", bitmap, Arrays.copyOf(reused, 3));
+      assertEquals("Last long", -1L, reused[3]);
+
+      bytes = "FRADEUXXXusa".getBytes(StandardCharsets.US_ASCII);
+      assertArrayEquals("Alpha-3", new long[]{3L}, CodeValidator.validateAlpha3(bytes, 0, 4));
+      bytes = "250999276a10".getBytes(StandardCharsets.US_ASCII);
+      assertArrayEquals("Numeric", new long[]{5L}, CodeValidator.validateNumeric(bytes, 0, 4));
+      assertEquals("Invalid numeric", 2, CodeValidator.validateNumeric(bytes, 0, 4, new long[1]));
+      assertArrayEquals("Empty", new long[0], CodeValidator.validateNumeric(bytes, 0, 0));
+   }
+
+   /**
+    * Check that the validation agrees with the lookups for the countries shadowed by name and for the codes which can
+    * not be indexed in the bitmasks.
+    */
+   @Test
+   public void testLookups() {
+      System.out.println("CodeValidatorTest : testLookups");
+      new Country("Validator Shadow", "VW", "VWV", 980);
+      new Country("Validator Shadow", "VX", "VXV", 979);
+      new Country("Validator Other", "v1", "v1v", 1001);
+      String[] alpha2 = {"VW", "VX", "v1", "FR", "QQ"};
+      for (int i = 0; i < alpha2.length; i++) {
+         assertEquals(alpha2[i], Country.getCountryFromAlpha2(alpha2[i]) != null, CodeValidator.isValidAlpha2(alpha2[i]));
+      }
+      assertTrue("VW", CodeValidator.isValidAlpha2("VW"));
+      assertTrue("VWV", CodeValidator.isValidAlpha3("VWV"));
+      assertTrue("980", CodeValidator.isValidNumeric(980));
+      assertTrue("v1", CodeValidator.isValidAlpha2("v1"));
+      assertTrue("v1v", CodeValidator.isValidAlpha3("v1v"));
+      assertTrue("1001", CodeValidator.isValidNumeric(1001));
+      byte[] bytes = "VWv1QQ".getBytes(StandardCharsets.US_ASCII);
+      assertArrayEquals("Alpha-2", new long[]{3L}, CodeValidator.validateAlpha2(bytes, 0, 3));
+      bytes = "v1vVXV".getBytes(StandardCharsets.US_ASCII);
+      assertArrayEquals("Alpha-3", new long[]{3L}, CodeValidator.validateAlpha3(bytes, 0, 2));
+   }
+}
@@ -0,0 +1,180 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the encoding of countries in bytes.
+ *
+ * @since 0.3
+ */
+public class CountryCodecTest {
+
+   public CountryCodecTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check the encoding of arrays of countries.
+    */
+   @Test
+   public void testEncode() {
+      System.out.println("CountryCodecTest : testEncode");
+      List<Country> countries = CountryRegistry.getDataset().getCountries();
+      Country[] in = new Country[countries.size() + 1];
+      for (int i = 0; i < countries.size(); i++) {
+         in[i] = countries.get(i);
+         assertSame(in[i].getName(), in[i], CountryCodec.decode(CountryCodec.encode(in[i])));
+      }
+      assertEquals("null", CountryCodec.NULL, CountryCodec.encode(null));
+      assertNull("null", CountryCodec.decode(CountryCodec.NULL));
+
+      byte[] bytes = new byte[in.length + 1];
+      CountryCodec.encode(in, 0, bytes, 1, in.length);
+      Country[] out = new Country[in.length];
+      CountryCodec.decode(bytes, 1, out, 0, in.length);
+      assertArrayEquals("Array", in, out);
+
+      ByteBuffer buffer = ByteBuffer.allocateDirect(in.length + 2);
+      CountryCodec.encode(in, 0, buffer, 2, in.length);
+      out = new Country[in.length];
+      CountryCodec.decode(buffer, 2, out, 0, in.length);
+      assertArrayEquals("Buffer", in, out);
+      assertEquals("Position", 0, buffer.position());
+
+      Country custom = new Country("Codec country", null, "ZC", "ZCC", 991, false);
+      try {
+         CountryCodec.encode(custom);
+         fail("A custom country can not be encoded");
+      } catch (IllegalArgumentException e) {
+      }
+      Country copy = new Country("Codec France", null, "FR", "FRA", 250, false);
+      try {
+         CountryCodec.encode(copy);
+         fail("A custom country which reuses the codes of a country of the dataset can not be encoded");
+      } catch (IllegalArgumentException e) {
+      }
+   }
+
+   /**
+    * Check that the encoded values are the ones of the codec.properties file, which must contain all the countries of
+    * the dataset.
+    */
+   @Test
+   public void testValues() {
+      System.out.println("CountryCodecTest : testValues");
+      Map<String, Integer> values = CountryCodec.getValues();
+      Iterator<Country> it = CountryRegistry.getDataset().getCountries().iterator();
+      while (it.hasNext()) {
+         Country country = it.next();
+         Integer value = values.get(country.getAlpha2());
+         assertNotNull(country.getName() + " must have a value in codec.properties", value);
+         assertEquals(country.getName(), value.intValue(), CountryCodec.encode(country) & 0xFF);
+      }
+      // the values already stored must not change
+      assertEquals("AF", 1, values.get("AF").intValue());
+      assertEquals("FR", 19, values.get("FR").intValue());
+      assertEquals("US", 66, values.get("US").intValue());
+   }
+
+   /**
+    * Check that the encoded values do not change when countries are added or when the overlay is reloaded.
+    */
+   @Test
+   public void testReload() {
+      System.out.println("CountryCodecTest : testReload");
+      Country colombia = Country.getCountryFromAlpha2("CO");
+      byte value = CountryCodec.encode(colombia);
+      new Country("Codec reload country", "ZD", "ZDC", 990);
+      assertEquals("After an addition", value, CountryCodec.encode(colombia));
+      assertSame("After an addition", colombia, CountryCodec.decode(value));
+
+      Country.applyOverlay(Collections.singletonList(new Country("Colombia", null, "CO", "COL", 170, false)));
+      try {
+         Country fixed = Country.getCountryFromAlpha2("CO");
+         assertNotSame("Overlay country", colombia, fixed);
+         assertEquals("Overlay country", value, CountryCodec.encode(fixed));
+         assertSame("Overlay country", fixed, CountryCodec.decode(value));
+         assertEquals("Country of the previous dataset", value, CountryCodec.encode(colombia));
+      } finally {
+         Country.applyOverlay(Collections.<Country>emptyList());
+      }
+      assertSame("Overlay removed", colombia, CountryCodec.decode(value));
+   }
+
+   /**
+    * Check the encoding of columns of codes.
+    */
+   @Test
+   public void testEncodeCodes() {
+      System.out.println("CountryCodecTest : testEncodeCodes");
+      byte[] out = new byte[4];
+      int unknown = CountryCodec.encodeAlpha2("FRUSqqZZ".getBytes(StandardCharsets.US_ASCII), 0, out, 0, 4);
+      assertEquals("Unknown alpha-2", 2, unknown);
+      assertSame("FR", Country.getCountryFromAlpha2("FR"), CountryCodec.decode(out[0]));
+      assertSame("US", Country.getCountryFromAlpha2("US"), CountryCodec.decode(out[1]));
+      assertEquals("qq", CountryCodec.NULL, out[2]);
+      assertEquals("ZZ", CountryCodec.NULL, out[3]);
+
+      unknown = CountryCodec.encodeAlpha3("xDEUFRA".getBytes(StandardCharsets.US_ASCII), 1, out, 0, 2);
+      assertEquals("Unknown alpha-3", 0, unknown);
+      assertSame("DEU", Country.getCountryFromAlpha2("DE"), CountryCodec.decode(out[0]));
+      assertSame("FRA", Country.getCountryFromAlpha2("FR"), CountryCodec.decode(out[1]));
+
+      unknown = CountryCodec.encodeNumeric("2502a0".getBytes(StandardCharsets.US_ASCII), 0, out, 0, 2);
+      assertEquals("Unknown numeric", 1, unknown);
+      assertSame("250", Country.getCountryFromAlpha2("FR"), CountryCodec.decode(out[0]));
+      assertEquals("2a0", CountryCodec.NULL, out[1]);
+   }
+}
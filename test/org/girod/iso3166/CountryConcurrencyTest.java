@@ -0,0 +1,179 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.FixMethodOrder;
+import org.junit.Test;
+import org.junit.runners.MethodSorters;
+import static org.junit.Assert.*;
+
+/**
+ * Check that the countries cache is correctly initialized when several threads perform their first lookup at the
+ * same time. Note that each test class is executed in its own JVM, so the cache is not initialized when the test starts.
+ *
+ * @since 0.3
+ */
+@FixMethodOrder(MethodSorters.NAME_ASCENDING)
+public class CountryConcurrencyTest {
+   private static final int THREADS = 64;
+   private static final String[][] EXPECTED = {
+      {"France", "FR", "FRA", "250"},
+      {"Afghanistan", "AF", "AFG", "004"},
+      {"Germany", "DE", "DEU", "276"},
+      {"United States of America", "US", "USA", "840"},
+      {"Yemen", "YE", "YEM", "887"}
+   };
+
+   public CountryConcurrencyTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check that the lookups are correct when many threads race through the first access to the cache.
+    */
+   @Test
+   public void testConcurrentFirstAccess() throws Exception {
+      System.out.println("CountryConcurrencyTest : testConcurrentFirstAccess");
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      final CountDownLatch start = new CountDownLatch(1);
+      List<Future<Country[]>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+         futures.add(executor.submit(new Callable<Country[]>() {
+            @Override
+            public Country[] call() throws Exception {
+               start.await();
+               Country[] result = new Country[EXPECTED.length];
+               for (int i = 0; i < EXPECTED.length; i++) {
+                  String[] expected = EXPECTED[i];
+                  Country country = Country.getCountryFromAlpha2(expected[1]);
+                  assertNotNull(expected[0] + " must exist", country);
+                  assertSame(expected[0], country, Country.getCountryFromName(expected[0]));
+                  assertSame(expected[0], country, Country.getCountryFromAlpha3(expected[2]));
+                  assertSame(expected[0], country, Country.getCountryFromNumeric(expected[3]));
+                  result[i] = country;
+               }
+               return result;
+            }
+         }));
+      }
+      start.countDown();
+      Country[] reference = null;
+      for (Future<Country[]> future : futures) {
+         Country[] result = future.get(30, TimeUnit.SECONDS);
+         if (reference == null) {
+            reference = result;
+         } else {
+            for (int i = 0; i < result.length; i++) {
+               assertSame("All threads must see the same cache", reference[i], result[i]);
+            }
+         }
+      }
+      executor.shutdown();
+   }
+
+   /**
+    * Check that the lookups are never affected by custom countries registered concurrently.
+    */
+   @Test
+   public void testConcurrentRegistration() throws Exception {
+      System.out.println("CountryConcurrencyTest : testConcurrentRegistration");
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      final CountDownLatch start = new CountDownLatch(1);
+      final CountDownLatch running = new CountDownLatch(THREADS - 1);
+      final AtomicBoolean done = new AtomicBoolean(false);
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS - 1; i++) {
+         futures.add(executor.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+               start.await();
+               int count = 0;
+               while (!done.get()) {
+                  for (int i = 0; i < EXPECTED.length; i++) {
+                     String[] expected = EXPECTED[i];
+                     Country country = Country.getCountryFromAlpha2(expected[1]);
+                     assertNotNull(expected[0] + " must exist", country);
+                     assertEquals(expected[0], expected[0], country.getName());
+                  }
+                  Country custom = Country.getCountryFromAlpha3("XAB");
+                  if (custom != null) {
+                     assertSame("Batch must be added at once", custom, Country.getCountryFromAlpha2("XB"));
+                  }
+                  if (count == 0) {
+                     running.countDown();
+                  }
+                  count++;
+               }
+               return count;
+            }
+         }));
+      }
+      start.countDown();
+      running.await();
+      for (int i = 0; i < 26; i++) {
+         char c = (char) ('A' + i);
+         List<Country> batch = new ArrayList<>();
+         batch.add(new Country("Custom A" + c, null, "X" + c, "XA" + c, 900 + i, false));
+         batch.add(new Country("Custom B" + c, null, "X" + (char) ('A' + (i + 1) % 26), "XB" + c, 950 + i, false));
+         Country.addCountries(batch);
+      }
+      done.set(true);
+      for (Future<Integer> future : futures) {
+         assertTrue("Lookups must have been performed", future.get(30, TimeUnit.SECONDS) > 0);
+      }
+      executor.shutdown();
+      assertEquals("Custom AZ", Country.getCountryFromAlpha3("XAZ"), Country.getCountryFromNumeric(925));
+   }
+}
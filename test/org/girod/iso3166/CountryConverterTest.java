@@ -0,0 +1,162 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the conversion of CSV and TSV files.
+ *
+ * @since 0.3
+ */
+public class CountryConverterTest {
+   private File input = null;
+   private File output = null;
+
+   public CountryConverterTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() throws IOException {
+      input = File.createTempFile("countries", ".csv");
+      output = File.createTempFile("converted", ".csv");
+   }
+
+   @After
+   public void tearDown() {
+      input.delete();
+      output.delete();
+   }
+
+   private String convert(CountryConverter converter, String content) throws IOException {
+      Files.write(input.toPath(), content.getBytes(StandardCharsets.UTF_8));
+      converter.convert(input, output);
+      return new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Check the conversion of a CSV file with a header.
+    */
+   @Test
+   public void testConvert() throws IOException {
+      System.out.println("CountryConverterTest : testConvert");
+      CountryConverter converter = new CountryConverter(CodeType.ALPHA2, CodeType.NAME, 1, (byte) ',', true, 1);
+      String result = convert(converter, "id,country,value\n1,FR,10\n2,\"KR\",20\r\n3,QM,30\n4,DE,40");
+      assertEquals("id,country,value\n1,France,10\n2,\"Korea, Republic of\",20\r\n3,QM,30\n4,Germany,40", result);
+      assertEquals("Lines", 4, converter.getLineCount());
+      assertEquals("Unresolved", 1, converter.getUnresolvedCount());
+   }
+
+   /**
+    * Check the conversion of a TSV file of names to numeric codes.
+    */
+   @Test
+   public void testConvertNames() throws IOException {
+      System.out.println("CountryConverterTest : testConvertNames");
+      CountryConverter converter = new CountryConverter(CodeType.NAME, CodeType.NUMERIC, 0, (byte) '\t', false, 1);
+      String result = convert(converter, "France\ta\n\"Korea, Republic of\"\tb\nrepublic of korea\tc\n");
+      assertEquals("250\ta\n\"410\"\tb\n410\tc\n", result);
+   }
+
+   /**
+    * Check the conversion of ISO 3166-2 codes to alpha-3 codes.
+    */
+   @Test
+   public void testConvertISO31662() throws IOException {
+      System.out.println("CountryConverterTest : testConvertISO31662");
+      CountryConverter converter = new CountryConverter(CodeType.ISO31662, CodeType.ALPHA3, 0, (byte) ';', false, 1);
+      String result = convert(converter, "ISO 3166-2:FR;a\nISO 3166-2:QM;b\nFR;c\n");
+      assertEquals("FRA;a\nISO 3166-2:QM;b\nFR;c\n", result);
+      assertEquals("Unresolved", 2, converter.getUnresolvedCount());
+   }
+
+   /**
+    * Check that the result does not depend on the size of the windows or on the number of threads.
+    */
+   @Test
+   public void testWindows() throws IOException {
+      System.out.println("CountryConverterTest : testWindows");
+      String[] codes = { "FRA", "DEU", "USA", "GBR", "JPN", "XYZ" };
+      StringBuilder buf = new StringBuilder();
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < 2000; i++) {
+         String code = codes[i % codes.length];
+         Country country = Country.getCountryFromAlpha3(code);
+         buf.append(i).append(';').append(code).append('\n');
+         expected.append(i).append(';').append(country == null ? code : country.getAlpha2()).append('\n');
+      }
+      // a line longer than the windows
+      buf.append("long").append(new String(new char[300]).replace('\0', 'x')).append(";FRA\n");
+      expected.append("long").append(new String(new char[300]).replace('\0', 'x')).append(";FR\n");
+      int[] windowSizes = { 64, 1000, 1 << 20 };
+      for (int i = 0; i < windowSizes.length; i++) {
+         for (int threads = 1; threads <= 4; threads++) {
+            CountryConverter converter = new CountryConverter(CodeType.ALPHA3, CodeType.ALPHA2, 1, (byte) ';', false,
+               threads, windowSizes[i]);
+            assertEquals("Window " + windowSizes[i] + ", threads " + threads, expected.toString(),
+               convert(converter, buf.toString()));
+            assertEquals("Lines", 2001, converter.getLineCount());
+         }
+      }
+   }
+
+   /**
+    * Check that the input file is not destroyed when it is also the output file.
+    */
+   @Test
+   public void testSameFile() throws IOException {
+      System.out.println("CountryConverterTest : testSameFile");
+      String content = "1,FR\n2,DE\n";
+      Files.write(input.toPath(), content.getBytes(StandardCharsets.UTF_8));
+      CountryConverter converter = new CountryConverter(CodeType.ALPHA2, CodeType.ALPHA3, 1, (byte) ',', false, 1);
+      File sameFile = new File(input.getParentFile(), "." + File.separator + input.getName());
+      try {
+         converter.convert(input, sameFile);
+         fail("The conversion of a file into itself must be rejected");
+      } catch (IOException ex) {
+         // expected
+      }
+      assertEquals("Input", content, new String(Files.readAllBytes(input.toPath()), StandardCharsets.UTF_8));
+   }
+}
@@ -0,0 +1,175 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @since 0.3
+ */
+public class CountryMapTest {
+   private static final int THREADS = 8;
+   private static final int INCREMENTS = 10000;
+   private Country france;
+   private Country germany;
+
+   public CountryMapTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+      france = Country.getCountryFromAlpha2("FR");
+      germany = Country.getCountryFromAlpha2("DE");
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of class CountryMap.
+    */
+   @Test
+   public void testCountryMap() {
+      System.out.println("CountryMapTest : testCountryMap");
+      CountryMap<String> map = new CountryMap<>();
+      assertNull("put France", map.put(france, "Paris"));
+      assertEquals("put France again", "Paris", map.put(france, "Lyon"));
+      map.put(germany, null);
+      assertEquals("size", 2, map.size());
+      assertEquals("get France", "Lyon", map.get(france));
+      assertTrue("contains Germany", map.containsKey(germany));
+      assertNull("get Germany", map.get(germany));
+      assertFalse("contains a String", map.containsKey("FR"));
+      Map<Country, String> expected = new HashMap<>();
+      expected.put(france, "Lyon");
+      expected.put(germany, null);
+      assertEquals("content", expected, map);
+      Country custom = new Country("Custom map", "XM", "XMA", 903);
+      map.put(custom, "Custom");
+      assertEquals("get custom", "Custom", map.get(custom));
+      assertEquals("remove France", "Lyon", map.remove(france));
+      assertEquals("size", 2, map.size());
+      assertEquals("entries", 2, map.entrySet().size());
+      map.clear();
+      assertTrue("empty", map.isEmpty());
+   }
+
+   /**
+    * Test of classes CountryLongMap and CountryIntMap.
+    */
+   @Test
+   public void testPrimitiveMaps() {
+      System.out.println("CountryMapTest : testPrimitiveMaps");
+      CountryLongMap longMap = new CountryLongMap();
+      assertEquals("get France", 0, longMap.get(france));
+      assertFalse("contains France", longMap.containsKey(france));
+      assertEquals("increment France", 1, longMap.increment(france));
+      assertEquals("add France", 11, longMap.add(france, 10));
+      assertEquals("put Germany", 0, longMap.put(germany, 5));
+      assertEquals("size", 2, longMap.size());
+      assertEquals("keys", CountrySet.of(france, germany), longMap.keySet());
+      assertEquals("remove Germany", 5, longMap.remove(germany));
+      assertEquals("size", 1, longMap.size());
+
+      CountryIntMap intMap = new CountryIntMap();
+      assertEquals("increment France", 1, intMap.increment(france));
+      assertEquals("add France", 3, intMap.add(france, 2));
+      assertEquals("get France", 3, intMap.get(france));
+      intMap.clear();
+      assertTrue("empty", intMap.isEmpty());
+      assertEquals("get France", 0, intMap.get(france));
+   }
+
+   /**
+    * Test of classes AtomicCountryLongMap and StripedCountryLongMap with several threads.
+    */
+   @Test
+   public void testConcurrentMaps() throws Exception {
+      System.out.println("CountryMapTest : testConcurrentMaps");
+      final AtomicCountryLongMap atomicMap = new AtomicCountryLongMap();
+      final StripedCountryLongMap stripedMap = new StripedCountryLongMap();
+      final Country custom = new Country("Custom counter", "XN", "XNA", 904);
+      ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+         futures.add(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+               for (int i = 0; i < INCREMENTS; i++) {
+                  atomicMap.incrementAndGet(france);
+                  atomicMap.addAndGet(custom, 2);
+                  stripedMap.increment(france);
+                  stripedMap.add(custom, 2);
+               }
+               return null;
+            }
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(30, TimeUnit.SECONDS);
+      }
+      executor.shutdown();
+      assertEquals("Atomic France", THREADS * INCREMENTS, atomicMap.get(france));
+      assertEquals("Atomic custom", 2 * THREADS * INCREMENTS, atomicMap.get(custom));
+      assertEquals("Atomic Germany", 0, atomicMap.get(germany));
+      assertEquals("Striped France", THREADS * INCREMENTS, stripedMap.get(france));
+      assertEquals("Striped custom", 2 * THREADS * INCREMENTS, stripedMap.get(custom));
+      assertEquals("Striped Germany", 0, stripedMap.get(germany));
+
+      CountryLongMap copy = atomicMap.toCountryLongMap();
+      assertEquals("Copy size", 2, copy.size());
+      assertEquals("Copy France", THREADS * INCREMENTS, copy.get(france));
+      copy = stripedMap.toCountryLongMap();
+      assertEquals("Copy custom", 2 * THREADS * INCREMENTS, copy.get(custom));
+      stripedMap.reset();
+      assertEquals("Reset France", 0, stripedMap.get(france));
+   }
+}
@@ -0,0 +1,122 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the lookup metrics when they are enabled. The build runs this test in its own JVM with the
+ * <code>org.girod.iso3166.metrics</code> system property, which must be set when the JVM starts, and runs the other
+ * tests with the metrics disabled.
+ *
+ * @since 0.3
+ */
+public class CountryMetricsEnabledTest {
+
+   public CountryMetricsEnabledTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check the counters of the lookups.
+    */
+   @Test
+   public void testMetrics() throws Exception {
+      System.out.println("CountryMetricsEnabledTest : testMetrics");
+      assertTrue("Metrics must be enabled with the " + CountryMetrics.PROPERTY + " system property", CountryMetrics.isEnabled());
+      CountryMetrics metrics = CountryMetrics.getInstance();
+      metrics.reset();
+      Country.getCountryFromAlpha2("FR");
+      Country.getCountryFromAlpha2("QQ");
+      Country.getCountryFromAlpha3("FRA");
+      Country.getCountryFromNumeric(250);
+      Country.getCountryFromNumeric("999");
+      Country.getCountryFromNumeric("25");
+      Country.getCountryFromName("France");
+      Country.getCountryFromName("Unknown");
+      Country.getCountryFromNormalizedName("france");
+      Country.findByPrefix("Fra", 10);
+      Country.getCountryFromFuzzyName("Frence");
+      assertEquals("Alpha2 hits", 1, metrics.getAlpha2Hits());
+      assertEquals("Alpha2 misses", 1, metrics.getAlpha2Misses());
+      assertEquals("Alpha3 hits", 1, metrics.getAlpha3Hits());
+      assertEquals("Alpha3 misses", 0, metrics.getAlpha3Misses());
+      assertEquals("Numeric hits", 1, metrics.getNumericHits());
+      assertEquals("Numeric misses", 2, metrics.getNumericMisses());
+      assertEquals("Name hits", 1, metrics.getNameHits());
+      assertEquals("Name misses", 1, metrics.getNameMisses());
+      assertEquals("Normalized name hits", 1, metrics.getNormalizedNameHits());
+      assertEquals("Prefix hits", 1, metrics.getPrefixHits());
+      assertEquals("Fuzzy name hits", 1, metrics.getFuzzyNameHits());
+      assertTrue("Cache initialization time", metrics.getCacheInitializationTime() >= 0);
+
+      // the lookups at a date are counted with the other lookups of their code
+      Country.getCountryFromAlpha2("SU", LocalDate.of(1980, 1, 1));
+      Country.getCountryFromAlpha3("SUN", LocalDate.of(2000, 1, 1));
+      Country.getCountryFromNumeric(810, LocalDate.of(1980, 1, 1));
+      assertEquals("Alpha2 hits at a date", 2, metrics.getAlpha2Hits());
+      assertEquals("Alpha3 misses at a date", 1, metrics.getAlpha3Misses());
+      assertEquals("Numeric hits at a date", 2, metrics.getNumericHits());
+      assertTrue("Index build time", metrics.getIndexBuildTime() > 0);
+      assertEquals("Dataset countries", Country.getDatasetCache().countries.size(), metrics.getDatasetCountries());
+
+      // the indexes already used are built again for the new cache
+      long buildTime = metrics.getIndexBuildTime();
+      long registered = metrics.getRegisteredCountries();
+      new Country("Metrics country", "ZM", "ZMC", 996);
+      assertEquals("Registered countries", registered + 1, metrics.getRegisteredCountries());
+      assertTrue("Index build time of the new cache", metrics.getIndexBuildTime() > buildTime);
+
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      Object hits = server.getAttribute(new ObjectName(CountryMetrics.OBJECT_NAME), "Alpha2Hits");
+      assertEquals("JMX Alpha2 hits", 2L, hits);
+   }
+}
@@ -0,0 +1,99 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.time.LocalDate;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check that the lookups do not change the metrics when they are disabled, which is the case for all the tests except
+ * {@link CountryMetricsEnabledTest}.
+ *
+ * @since 0.3
+ */
+public class CountryMetricsTest {
+
+   public CountryMetricsTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check that the counters do not change when the metrics are disabled.
+    */
+   @Test
+   public void testDisabledMetrics() {
+      System.out.println("CountryMetricsTest : testDisabledMetrics");
+      assertFalse("Metrics must be disabled", CountryMetrics.isEnabled());
+      CountryMetrics metrics = CountryMetrics.getInstance();
+      Country.getCountryFromAlpha2("FR");
+      Country.getCountryFromAlpha2("QQ");
+      Country.getCountryFromAlpha3("FRA");
+      Country.getCountryFromNumeric(250);
+      Country.getCountryFromNumeric("999");
+      Country.getCountryFromName("France");
+      Country.getCountryFromNormalizedName("france");
+      Country.findByPrefix("Fra", 10);
+      Country.getCountryFromFuzzyName("Frence");
+      Country.getCountryFromAlpha2("SU", LocalDate.of(1980, 1, 1));
+      Country.getCountryFromAlpha3("SUN", LocalDate.of(1980, 1, 1));
+      Country.getCountryFromNumeric(810, LocalDate.of(1980, 1, 1));
+      new Country("Disabled metrics country", "ZW", "ZWD", 977);
+      assertEquals("Alpha2 hits", 0, metrics.getAlpha2Hits());
+      assertEquals("Alpha2 misses", 0, metrics.getAlpha2Misses());
+      assertEquals("Alpha3 hits", 0, metrics.getAlpha3Hits());
+      assertEquals("Numeric hits", 0, metrics.getNumericHits());
+      assertEquals("Numeric misses", 0, metrics.getNumericMisses());
+      assertEquals("Name hits", 0, metrics.getNameHits());
+      assertEquals("Normalized name hits", 0, metrics.getNormalizedNameHits());
+      assertEquals("Prefix hits", 0, metrics.getPrefixHits());
+      assertEquals("Fuzzy name hits", 0, metrics.getFuzzyNameHits());
+      assertEquals("Cache initialization time", -1, metrics.getCacheInitializationTime());
+      assertEquals("Index build time", 0, metrics.getIndexBuildTime());
+      assertEquals("Dataset countries", 0, metrics.getDatasetCountries());
+      assertEquals("Registered countries", 0, metrics.getRegisteredCountries());
+   }
+}
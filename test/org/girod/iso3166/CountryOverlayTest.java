@@ -0,0 +1,211 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the countries overlay.
+ *
+ * @since 0.3
+ */
+public class CountryOverlayTest {
+   private static final long TIMEOUT = 20000;
+   private File dir = null;
+   private File file = null;
+
+   public CountryOverlayTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() throws IOException {
+      dir = Files.createTempDirectory("overlay").toFile();
+      file = new File(dir, "overlay.xml");
+   }
+
+   @After
+   public void tearDown() {
+      file.delete();
+      dir.delete();
+   }
+
+   private void write(String countries) throws IOException {
+      String content = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<countries>\n" + countries + "</countries>\n";
+      Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+   }
+
+   private static void waitForGeneration(CountryOverlay overlay, long generation) throws InterruptedException {
+      long start = System.currentTimeMillis();
+      while (overlay.getGeneration() < generation && System.currentTimeMillis() - start < TIMEOUT) {
+         Thread.sleep(20);
+      }
+      assertEquals("Generation", generation, overlay.getGeneration());
+   }
+
+   /**
+    * Check that the overlay replaces and adds countries, and that its changes are reloaded.
+    */
+   @Test
+   public void testOverlay() throws Exception {
+      System.out.println("CountryOverlayTest : testOverlay");
+      Country colombia = Country.getCountryFromAlpha3("CON");
+      assertNotNull("Colombia", colombia);
+      int ordinal = colombia.getOrdinal();
+      write("   <country name=\"Colombia\" alpha2=\"CO\" alpha3=\"COL\" numeric=\"170\" />\n"
+         + "   <country name=\"Overlay Land\" alpha2=\"ZO\" alpha3=\"ZOL\" numeric=\"989\" />\n");
+
+      // lookups performed during the reloads must always find a country
+      final AtomicBoolean running = new AtomicBoolean(true);
+      final AtomicBoolean failed = new AtomicBoolean(false);
+      Thread reader = new Thread(new Runnable() {
+         @Override
+         public void run() {
+            while (running.get()) {
+               if (Country.getCountryFromNumeric(170) == null || Country.getCountryFromAlpha2("FR") == null) {
+                  failed.set(true);
+               }
+            }
+         }
+      });
+      reader.start();
+
+      try (CountryOverlay overlay = CountryOverlay.watch(file)) {
+         assertEquals("Generation", 1, overlay.getGeneration());
+         Country fixed = Country.getCountryFromAlpha3("COL");
+         assertNotNull("COL", fixed);
+         assertNull("CON", Country.getCountryFromAlpha3("CON"));
+         assertEquals("Ordinal", ordinal, fixed.getOrdinal());
+         assertSame("Ordinal", fixed, Country.getCountryFromOrdinal(ordinal));
+         assertSame("Numeric", fixed, Country.getCountryFromNumeric(170));
+         assertEquals("Codec", fixed, CountryCodec.decode(CountryCodec.encode(fixed)));
+         Country added = Country.getCountryFromAlpha2("ZO");
+         assertNotNull("Added country", added);
+         int addedOrdinal = added.getOrdinal();
+
+         // the file is reloaded when it changes
+         write("   <country name=\"Colombia\" alpha2=\"CO\" alpha3=\"COL\" numeric=\"170\" >\n"
+            + "      <altName name=\"Republic of Colombia\" />\n"
+            + "   </country>\n"
+            + "   <country name=\"Overlay Land\" alpha2=\"ZO\" alpha3=\"ZOL\" numeric=\"989\" />\n");
+         waitForGeneration(overlay, 2);
+         assertSame("Alternate name", Country.getCountryFromAlpha3("COL"), Country.getCountryFromName("Republic of Colombia"));
+         assertEquals("Ordinal of the added country", addedOrdinal, Country.getCountryFromAlpha2("ZO").getOrdinal());
+
+         // an invalid file is ignored
+         write("   <country name=\"Colombia\" alpha2=\"co\" alpha3=\"COL\" numeric=\"170\" />\n");
+         long start = System.currentTimeMillis();
+         while (overlay.getLastError() == null && System.currentTimeMillis() - start < TIMEOUT) {
+            Thread.sleep(20);
+         }
+         assertNotNull("Invalid file", overlay.getLastError());
+         assertNotNull("The previous overlay must be kept", Country.getCountryFromAlpha3("COL"));
+
+         // deleting the file removes the overlay
+         file.delete();
+         waitForGeneration(overlay, 3);
+         assertSame("Colombia", colombia, Country.getCountryFromAlpha3("CON"));
+         assertSame("Ordinal", colombia, Country.getCountryFromOrdinal(ordinal));
+         assertNull("Removed country", Country.getCountryFromAlpha2("ZO"));
+         assertEquals("Removed ordinal", "ZO", Country.getCountryFromOrdinal(addedOrdinal).getAlpha2());
+      } finally {
+         running.set(false);
+         reader.join();
+      }
+      assertFalse("A lookup found no country during a reload", failed.get());
+   }
+
+   /**
+    * Check that custom countries are kept when the overlay is reloaded.
+    */
+   @Test
+   public void testCustomCountries() throws Exception {
+      System.out.println("CountryOverlayTest : testCustomCountries");
+      Country custom = new Country("Overlay custom country", "ZY", "ZYC", 988);
+      write("   <country name=\"China\" alpha2=\"CN\" alpha3=\"CHN\" numeric=\"156\" />\n");
+      try (CountryOverlay overlay = CountryOverlay.watch(file)) {
+         assertNotNull("CN", Country.getCountryFromAlpha2("CN"));
+         assertSame("Custom country", custom, Country.getCountryFromAlpha2("ZY"));
+         assertTrue("Reload", overlay.reload());
+         assertSame("Custom country", custom, Country.getCountryFromAlpha2("ZY"));
+      }
+      Country.applyOverlay(Collections.<Country>emptyList());
+      assertNull("CN", Country.getCountryFromAlpha2("CN"));
+      assertSame("Custom country", custom, Country.getCountryFromAlpha2("ZY"));
+   }
+
+   /**
+    * Check that the sets and maps which contain a country removed from the overlay still iterate over it.
+    */
+   @Test
+   public void testRemovedCountries() {
+      System.out.println("CountryOverlayTest : testRemovedCountries");
+      Country.applyOverlay(Collections.singletonList(new Country("Removed Land", null, "ZK", "ZKL", 978, false)));
+      Country removed = Country.getCountryFromAlpha2("ZK");
+      assertNotNull("ZK", removed);
+      CountrySet set = CountrySet.of(removed, Country.getCountryFromAlpha2("FR"));
+      CountryMap<String> map = new CountryMap<>();
+      map.put(removed, "removed");
+      AtomicCountryLongMap atomicMap = new AtomicCountryLongMap();
+      atomicMap.set(removed, 3);
+      StripedCountryLongMap stripedMap = new StripedCountryLongMap();
+      stripedMap.add(removed, 5);
+      Country.applyOverlay(Collections.<Country>emptyList());
+      assertNull("ZK", Country.getCountryFromAlpha2("ZK"));
+
+      assertSame("Ordinal", removed, Country.getCountryFromOrdinal(removed.getOrdinal()));
+      assertEquals("Set size", 2, set.size());
+      Iterator<Country> it = set.iterator();
+      while (it.hasNext()) {
+         assertNotNull("Set element", it.next());
+      }
+      assertTrue("Set", set.contains(removed));
+      assertSame("Map key", removed, map.keySet().iterator().next());
+      assertEquals("Map value", "removed", map.get(removed));
+      assertEquals("Atomic map", 3, atomicMap.toCountryLongMap().get(removed));
+      assertEquals("Striped map", 5, stripedMap.toCountryLongMap().get(removed));
+   }
+}
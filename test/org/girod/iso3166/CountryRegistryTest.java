@@ -0,0 +1,184 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the countries registries.
+ *
+ * @since 0.3
+ */
+public class CountryRegistryTest {
+
+   public CountryRegistryTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check that the countries of derived registries are isolated.
+    */
+   @Test
+   public void testDerivedRegistries() {
+      System.out.println("CountryRegistryTest : testDerivedRegistries");
+      CountryRegistry defaultRegistry = CountryRegistry.getDefault();
+      Country tenant1Country = new Country("Tenant One", null, "ZT", "ZAT", 987, false);
+      Country tenant2Country = new Country("Tenant Two", null, "ZT", "ZAU", 986, false);
+      CountryRegistry tenant1 = defaultRegistry.derive(tenant1Country);
+      CountryRegistry tenant2 = defaultRegistry.derive(tenant2Country);
+      assertSame("Parent", defaultRegistry, tenant1.getParent());
+
+      assertSame("Tenant 1 alpha2", tenant1Country, tenant1.getCountryFromAlpha2("ZT"));
+      assertSame("Tenant 2 alpha2", tenant2Country, tenant2.getCountryFromAlpha2("ZT"));
+      assertNull("Default alpha2", defaultRegistry.getCountryFromAlpha2("ZT"));
+      assertNull("Static alpha2", Country.getCountryFromAlpha2("ZT"));
+      assertSame("Tenant 1 alpha3", tenant1Country, tenant1.getCountryFromAlpha3("ZAT"));
+      assertNull("Tenant 2 alpha3", tenant2.getCountryFromAlpha3("ZAT"));
+      assertSame("Tenant 1 numeric", tenant1Country, tenant1.getCountryFromNumeric("987"));
+      assertSame("Tenant 1 name", tenant1Country, tenant1.getCountryFromName("Tenant One"));
+      assertSame("Tenant 1 normalized name", tenant1Country, tenant1.getCountryFromNormalizedName("TENANT-ONE"));
+      assertSame("Tenant 1 CharSequence", tenant1Country, tenant1.getCountryFromAlpha2(new StringBuilder("ZT")));
+      assertSame("Tenant 1 bytes", tenant1Country, tenant1.getCountryFromAlpha3("xZAT".getBytes(StandardCharsets.US_ASCII), 1, 3));
+      assertSame("Tenant 1 buffer", tenant1Country,
+         tenant1.getCountryFromNumeric(ByteBuffer.wrap("987".getBytes(StandardCharsets.US_ASCII)), 0, 3));
+      assertSame("Tenant 1 prefix", tenant1Country, tenant1.findByPrefix("tenant", 10).get(0));
+      assertEquals("Tenant 2 prefix", 1, tenant2.findByPrefix("tenant", 10).size());
+      assertTrue("Default prefix", defaultRegistry.findByPrefix("tenant", 10).isEmpty());
+      assertSame("Tenant 1 fuzzy name", tenant1Country, tenant1.getCountryFromFuzzyName("Tennant One").getCountry());
+      assertNull("Default fuzzy name", defaultRegistry.getCountryFromFuzzyName("Tennant One"));
+
+      // the countries of the parent are found
+      Country france = Country.getCountryFromAlpha2("FR");
+      assertSame("Parent alpha2", france, tenant1.getCountryFromAlpha2("FR"));
+      assertSame("Parent numeric", france, tenant1.getCountryFromNumeric(250));
+      assertSame("Parent normalized name", france, tenant1.getCountryFromNormalizedName("france"));
+      assertSame("Parent bytes", france, tenant1.getCountryFromAlpha2("FR".getBytes(StandardCharsets.US_ASCII), 0, 2));
+      assertSame("Parent fuzzy name", france, tenant1.getCountryFromFuzzyName("Frence").getCountry());
+      assertTrue("Parent prefix", tenant1.findByPrefix("fra", 10).contains(france));
+
+      List<Country> countries = tenant1.getCountries();
+      assertEquals("Countries", defaultRegistry.getCountries().size() + 1, countries.size());
+      assertTrue("Tenant country", countries.contains(tenant1Country));
+      assertFalse("Other tenant country", countries.contains(tenant2Country));
+      assertSame("Countries must not be created again", countries, tenant1.getCountries());
+      List<Country> byAlpha3 = tenant1.getCountries(CodeType.ALPHA3);
+      assertEquals("Countries by alpha-3", countries.size(), byAlpha3.size());
+      for (int i = 1; i < byAlpha3.size(); i++) {
+         assertTrue("Order", CodeType.ALPHA3.compare(byAlpha3.get(i - 1), byAlpha3.get(i)) < 0);
+      }
+
+      // a country added to the default registry is seen by the derived registries
+      Country global = new Country("Registry global country", "ZG", "ZGC", 985);
+      assertSame("Global country", global, tenant1.getCountryFromAlpha2("ZG"));
+      assertNotSame("Countries must be created again", countries, tenant1.getCountries());
+      assertTrue("Global country", tenant1.getCountries().contains(global));
+
+      // a registry derived from a derived registry
+      Country override = new Country("France override", null, "FR", "FRO", 984, false);
+      CountryRegistry derived = tenant1.derive(override);
+      assertSame("Override", override, derived.getCountryFromAlpha2("FR"));
+      assertSame("Grand parent", tenant1Country, derived.getCountryFromAlpha2("ZT"));
+      assertSame("Not overriden", france, tenant1.getCountryFromAlpha2("FR"));
+      assertSame("Override normalized name", override, derived.getCountryFromNormalizedName("france override"));
+      assertEquals("Derived countries", tenant1.getCountries().size() + 1, derived.getCountries().size());
+   }
+
+   /**
+    * Check that the countries of a derived registry are not kept by the library once the registry is dropped.
+    */
+   @Test
+   public void testRegistryRelease() throws Exception {
+      System.out.println("CountryRegistryTest : testRegistryRelease");
+      int ordinals = Country.getOrdinalCount();
+      Country country = new Country("Released tenant", null, "ZQ", "ZQR", 981, false);
+      CountryRegistry registry = CountryRegistry.getDefault().derive(country);
+      assertSame("Tenant country", country, registry.getCountryFromAlpha2("ZQ"));
+      assertEquals("Tenant countries have no ordinal", -1, country.getOrdinal());
+      assertEquals("Ordinals", ordinals, Country.getOrdinalCount());
+      assertFalse("Tenant countries are not in the cache", CountrySet.allOf().contains(country));
+
+      WeakReference<CountryRegistry> registryRef = new WeakReference<>(registry);
+      WeakReference<Country> countryRef = new WeakReference<>(country);
+      registry = null;
+      country = null;
+      for (int i = 0; i < 100 && (registryRef.get() != null || countryRef.get() != null); i++) {
+         System.gc();
+         Thread.sleep(10);
+      }
+      assertNull("The registry must be released", registryRef.get());
+      assertNull("The tenant country must be released", countryRef.get());
+   }
+
+   /**
+    * Check that the dataset registry only contains the countries of the dataset.
+    */
+   @Test
+   public void testDatasetRegistry() {
+      System.out.println("CountryRegistryTest : testDatasetRegistry");
+      CountryRegistry dataset = CountryRegistry.getDataset();
+      assertSame("Dataset", Country.getCountryFromAlpha2("FR"), dataset.getCountryFromAlpha2("FR"));
+      int datasetSize = Country.getDatasetCache().countries.size();
+      assertEquals("Dataset countries", datasetSize, dataset.getCountries().size());
+      Iterator<Country> it = dataset.getCountries().iterator();
+      while (it.hasNext()) {
+         assertTrue("Dataset ordinal", it.next().getOrdinal() < datasetSize);
+      }
+
+      // a registry derived from the dataset registry does not modify the default registry
+      Country custom = new Country("Registry custom country", null, "ZR", "ZRC", 983, false);
+      CountryRegistry registry = dataset.derive(custom);
+      assertSame("Derived", custom, registry.getCountryFromAlpha2("ZR"));
+      assertNull("Default", CountryRegistry.getDefault().getCountryFromAlpha2("ZR"));
+      assertNull("Dataset", dataset.getCountryFromAlpha2("ZR"));
+      assertEquals("Derived countries", datasetSize + 1, registry.getCountries().size());
+   }
+}
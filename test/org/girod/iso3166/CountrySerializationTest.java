@@ -0,0 +1,139 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the serialization of countries.
+ *
+ * @since 0.3
+ */
+public class CountrySerializationTest {
+
+   public CountrySerializationTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   private static byte[] serialize(Object object) throws IOException {
+      ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(stream)) {
+         out.writeObject(object);
+      }
+      return stream.toByteArray();
+   }
+
+   private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+      try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+         return in.readObject();
+      }
+   }
+
+   /**
+    * Check that the countries of the dataset are deserialized as the same instances.
+    */
+   @Test
+   public void testDatasetCountries() throws Exception {
+      System.out.println("CountrySerializationTest : testDatasetCountries");
+      List<Country> countries = new ArrayList<>(Country.getCountries(CodeType.NAME));
+      List<?> result = (List<?>) deserialize(serialize(countries));
+      assertEquals("Size", countries.size(), result.size());
+      for (int i = 0; i < countries.size(); i++) {
+         assertSame(countries.get(i).getName(), countries.get(i), result.get(i));
+      }
+      Country country = Country.getCountryFromAlpha2("FR");
+      int size = serialize(country).length;
+      assertTrue("Serialized size must be small: " + size, size < 120);
+   }
+
+   /**
+    * Check the serialization of custom countries.
+    */
+   @Test
+   public void testCustomCountries() throws Exception {
+      System.out.println("CountrySerializationTest : testCustomCountries");
+      Country registered = new Country("Serialized country", Arrays.asList("Serialized"), "ZS", "ZSC", 993);
+      assertSame("Registered country", registered, deserialize(serialize(registered)));
+
+      Country unregistered = new Country("Unregistered country", Arrays.asList("Unregistered"), "ZU", "ZUC", 992, false);
+      Country result = (Country) deserialize(serialize(unregistered));
+      assertNotSame("Unregistered country", unregistered, result);
+      assertEquals("Name", "Unregistered country", result.getName());
+      assertEquals("Alpha2", "ZU", result.getAlpha2());
+      assertEquals("Alpha3", "ZUC", result.getAlpha3());
+      assertEquals("Numeric", 992, result.getNumericCode());
+      assertEquals("Alternate names", Arrays.asList("Unregistered"), result.getAlternateNames());
+      assertNull("Not added to the cache", Country.getCountryFromAlpha2("ZU"));
+      assertEquals("No ordinal", -1, result.getOrdinal());
+      int ordinals = Country.getOrdinalCount();
+      byte[] bytes = serialize(unregistered);
+      for (int i = 0; i < 1000; i++) {
+         deserialize(bytes);
+      }
+      assertEquals("Deserialized countries must not use ordinals", ordinals, Country.getOrdinalCount());
+   }
+
+   /**
+    * Check the serialization of countries whose numeric code has more than 3 digits.
+    */
+   @Test
+   public void testLargeNumericCodes() throws Exception {
+      System.out.println("CountrySerializationTest : testLargeNumericCodes");
+      Country big = new Country("Big Numeric", "QZ", "QZZ", 40000);
+      assertSame("Large numeric code", big, deserialize(serialize(big)));
+      Country negative = new Country("Negative Numeric", "QY", "QYY", -5);
+      assertSame("Negative numeric code", negative, deserialize(serialize(negative)));
+   }
+}
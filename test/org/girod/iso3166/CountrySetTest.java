@@ -0,0 +1,208 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ *
+ * @since 0.3
+ */
+public class CountrySetTest {
+   private Country france;
+   private Country germany;
+   private Country italy;
+   private Country spain;
+
+   public CountrySetTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+      france = Country.getCountryFromAlpha2("FR");
+      germany = Country.getCountryFromAlpha2("DE");
+      italy = Country.getCountryFromAlpha2("IT");
+      spain = Country.getCountryFromAlpha2("ES");
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Test of the ordinals, of class Country.
+    */
+   @Test
+   public void testOrdinals() {
+      System.out.println("CountrySetTest : testOrdinals");
+      Country afghanistan = Country.getCountryFromAlpha2("AF");
+      assertEquals("Afghanistan ordinal", 0, afghanistan.getOrdinal());
+      assertSame("Ordinal 0", afghanistan, Country.getCountryFromOrdinal(0));
+      assertSame("France ordinal", france, Country.getCountryFromOrdinal(france.getOrdinal()));
+      assertNull("Ordinal -1", Country.getCountryFromOrdinal(-1));
+      Set<Integer> ordinals = new HashSet<>();
+      CountrySet all = CountrySet.allOf();
+      Iterator<Country> it = all.iterator();
+      while (it.hasNext()) {
+         assertTrue("Ordinals must be unique", ordinals.add(it.next().getOrdinal()));
+      }
+      assertTrue("All countries", all.size() >= 69);
+      Country custom = new Country("Custom", null, "XO", "XOR", 901, false);
+      assertEquals("Country not added to the cache", -1, custom.getOrdinal());
+      Country.addCountries(Collections.singletonList(custom));
+      assertTrue("Custom country ordinal", custom.getOrdinal() >= 69);
+      assertSame("Custom country", custom, Country.getCountryFromOrdinal(custom.getOrdinal()));
+      assertEquals("Ordinal count", custom.getOrdinal() + 1, Country.getOrdinalCount());
+      for (int i = 0; i < 10; i++) {
+         new Country("Temporary", null, "XP", "XPT", 900, false);
+      }
+      assertEquals("Temporary countries have no ordinal", custom.getOrdinal() + 1, Country.getOrdinalCount());
+   }
+
+   /**
+    * Check that the set is consistent with the equality of the countries.
+    */
+   @Test
+   public void testEquality() {
+      System.out.println("CountrySetTest : testEquality");
+      Country custom = new Country("Custom equality", null, "XQ", "XQE", 903, false);
+      Country.addCountries(Collections.singletonList(custom));
+      Country copy = new Country("Custom equality", null, "XQ", "XQE", 903, false);
+      CountrySet set = CountrySet.of(france, custom);
+      Set<Country> hashSet = new HashSet<>(set);
+      assertEquals("Copy", custom, copy);
+      assertTrue("HashSet must contain the copy", hashSet.contains(copy));
+      assertTrue("CountrySet must contain the copy", set.contains(copy));
+      assertFalse("null", set.contains(null));
+      assertFalse("null", set.remove(null));
+      Country other = new Country("Not in the cache", null, "XR", "XRE", 904, false);
+      assertFalse("Country not in the cache", set.contains(other));
+      try {
+         set.add(other);
+         fail("A country which is not in the cache can not be added");
+      } catch (IllegalArgumentException e) {
+      }
+      assertTrue("Remove the copy", set.remove(copy));
+      assertFalse("Custom country removed", set.contains(custom));
+   }
+
+   /**
+    * Test of the basic operations, of class CountrySet.
+    */
+   @Test
+   public void testSet() {
+      System.out.println("CountrySetTest : testSet");
+      CountrySet set = CountrySet.of(france, germany);
+      assertEquals("Size", 2, set.size());
+      assertTrue("Must contain France", set.contains(france));
+      assertFalse("Must not contain Italy", set.contains(italy));
+      assertFalse("Must not contain a String", set.contains("France"));
+      assertTrue("Add Italy", set.add(italy));
+      assertFalse("Add Italy again", set.add(italy));
+      assertTrue("Remove Germany", set.remove(germany));
+      assertFalse("Remove Germany again", set.remove(germany));
+      assertEquals("Size", 2, set.size());
+      Set<Country> expected = new HashSet<>();
+      expected.add(france);
+      expected.add(italy);
+      assertEquals("Set content", expected, set);
+      assertEquals("Set content", set, expected);
+      Iterator<Country> it = set.iterator();
+      while (it.hasNext()) {
+         if (it.next() == france) {
+            it.remove();
+         }
+      }
+      assertEquals("Size", 1, set.size());
+      set.clear();
+      assertTrue("Empty", set.isEmpty());
+   }
+
+   /**
+    * Test of the union, intersection and difference, of class CountrySet.
+    */
+   @Test
+   public void testSetOperations() {
+      System.out.println("CountrySetTest : testSetOperations");
+      CountrySet a = CountrySet.of(france, germany, italy);
+      CountrySet b = CountrySet.of(italy, spain);
+      assertEquals("Union", CountrySet.of(france, germany, italy, spain), a.union(b));
+      assertEquals("Intersection", CountrySet.of(italy), a.intersection(b));
+      assertEquals("Difference", CountrySet.of(france, germany), a.difference(b));
+      assertEquals("a must not be modified", 3, a.size());
+      assertTrue("containsAll", a.containsAll(CountrySet.of(france, italy)));
+      assertFalse("containsAll", a.containsAll(b));
+      Country custom = new Country("Custom set", null, "XS", "XSE", 902);
+      CountrySet c = CountrySet.of(custom);
+      assertTrue("retainAll", c.retainAll(a));
+      assertTrue("Empty", c.isEmpty());
+      assertTrue("addAll", c.addAll(a));
+      assertEquals("addAll", a, c);
+   }
+
+   /**
+    * Test of the compact form and the serialization, of class CountrySet.
+    */
+   @Test
+   public void testCompactForm() throws Exception {
+      System.out.println("CountrySetTest : testCompactForm");
+      CountrySet set = CountrySet.of(france, spain);
+      long[] words = set.toLongArray();
+      assertEquals("Number of words", 1, words.length);
+      assertEquals("Compact form", set, CountrySet.valueOf(words));
+      assertEquals("Empty compact form", 0, new CountrySet().toLongArray().length);
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      try (ObjectOutputStream stream = new ObjectOutputStream(out)) {
+         stream.writeObject(set);
+      }
+      try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+         assertEquals("Serialized set", set, stream.readObject());
+      }
+   }
+}
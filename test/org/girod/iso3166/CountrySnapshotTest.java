@@ -0,0 +1,102 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the binary snapshot of the countries XML file.
+ *
+ * @since 0.3
+ */
+public class CountrySnapshotTest {
+
+   public CountrySnapshotTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check that the snapshot created at build time contains the same countries as the XML file.
+    */
+   @Test
+   public void testSnapshot() {
+      System.out.println("CountrySnapshotTest : testSnapshot");
+      List<Country> snapshot = CountrySnapshot.readSnapshot();
+      assertNotNull("The snapshot must exist", snapshot);
+      List<Country> countries = new CountryParser().parseSpec();
+      assertCountriesEquals(countries, snapshot);
+   }
+
+   /**
+    * Check that the countries written to a snapshot are read back.
+    */
+   @Test
+   public void testWriteSnapshot() throws Exception {
+      System.out.println("CountrySnapshotTest : testWriteSnapshot");
+      List<Country> countries = new CountryParser().parseSpec();
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      CountrySnapshot.writeSnapshot(countries, out);
+      List<Country> snapshot = CountrySnapshot.readSnapshot(new ByteArrayInputStream(out.toByteArray()));
+      assertCountriesEquals(countries, snapshot);
+   }
+
+   private void assertCountriesEquals(List<Country> expected, List<Country> actual) {
+      assertEquals("Number of countries", expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+         Country country = expected.get(i);
+         Country other = actual.get(i);
+         assertEquals("Name", country.getName(), other.getName());
+         assertEquals("Alpha-2 code", country.getAlpha2(), other.getAlpha2());
+         assertEquals("Alpha-3 code", country.getAlpha3(), other.getAlpha3());
+         assertEquals("Numeric code", country.getNumericCode(), other.getNumericCode());
+         assertEquals("Alternate names", country.getAlternateNames(), other.getAlternateNames());
+      }
+   }
+}
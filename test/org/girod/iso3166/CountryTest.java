@@ -32,6 +32,13 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import static org.junit.Assert.*;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.nio.charset.StandardCharsets;
 
 /**
  *
@@ -84,4 +91,379 @@ public class CountryTest {
       assertEquals("Afghanistan ISO3166-2", "ISO 3166-2:AF", country.getISO31662());
    }
 
+   /**
+    * Test of getCountryFromAlpha2 and getCountryFromAlpha3 methods, of class Country.
+    */
+   @Test
+   public void testAlphaCodes() {
+      System.out.println("CountryTest : testAlphaCodes");
+      Country country = Country.getCountryFromAlpha2("FR");
+      assertNotNull("FR must exist", country);
+      assertEquals("FR name", "France", country.getName());
+      assertSame("FRA", country, Country.getCountryFromAlpha3("FRA"));
+      assertSame("AF", Country.getCountryFromName("Afghanistan"), Country.getCountryFromAlpha2("AF"));
+      assertSame("ZAF", Country.getCountryFromName("South Africa"), Country.getCountryFromAlpha3("ZAF"));
+      assertNull("ZZ must not exist", Country.getCountryFromAlpha2("ZZ"));
+      assertNull("fr must not exist", Country.getCountryFromAlpha2("fr"));
+      assertNull("F1 must not exist", Country.getCountryFromAlpha2("F1"));
+      assertNull("F[ must not exist", Country.getCountryFromAlpha2("F["));
+      assertNull("FRAN must not exist", Country.getCountryFromAlpha2("FRAN"));
+      assertNull("empty code must not exist", Country.getCountryFromAlpha3(""));
+      assertNull("FR@ must not exist", Country.getCountryFromAlpha3("FR@"));
+      assertNull("null code must not exist", Country.getCountryFromAlpha3(null));
+   }
+
+   /**
+    * Test of getCountryFromNumeric methods, of class Country.
+    */
+   @Test
+   public void testNumericCodes() {
+      System.out.println("CountryTest : testNumericCodes");
+      Country country = Country.getCountryFromNumeric(4);
+      assertNotNull("4 must exist", country);
+      assertEquals("4 name", "Afghanistan", country.getName());
+      assertSame("004", country, Country.getCountryFromNumeric("004"));
+      assertSame("840", Country.getCountryFromAlpha2("US"), Country.getCountryFromNumeric(840));
+      assertSame("840", Country.getCountryFromAlpha2("US"), Country.getCountryFromNumeric("840"));
+      assertNull("0 must not exist", Country.getCountryFromNumeric(0));
+      assertNull("-4 must not exist", Country.getCountryFromNumeric(-4));
+      assertNull("1000 must not exist", Country.getCountryFromNumeric(1000));
+      assertNull("4 must not exist", Country.getCountryFromNumeric("4"));
+      assertNull("+04 must not exist", Country.getCountryFromNumeric("+04"));
+      assertNull("04a must not exist", Country.getCountryFromNumeric("04a"));
+      assertNull("0004 must not exist", Country.getCountryFromNumeric("0004"));
+      assertNull("null code must not exist", Country.getCountryFromNumeric(null));
+   }
+
+   /**
+    * Test of the lookup methods using character sequences, byte arrays and buffers, of class Country.
+    */
+   @Test
+   public void testCodesInBuffers() {
+      System.out.println("CountryTest : testCodesInBuffers");
+      Country france = Country.getCountryFromAlpha2("FR");
+      assertSame("FR", france, Country.getCountryFromAlpha2(new StringBuilder("FR")));
+      assertSame("FRA", france, Country.getCountryFromAlpha3(new StringBuilder("FRA")));
+      assertSame("250", france, Country.getCountryFromNumeric(new StringBuilder("250")));
+      assertNull("F1", Country.getCountryFromAlpha2(new StringBuilder("F1")));
+
+      byte[] bytes = "xx,FR,FRA,250,F\u00e9,xx".getBytes(StandardCharsets.ISO_8859_1);
+      assertSame("FR", france, Country.getCountryFromAlpha2(bytes, 3, 2));
+      assertSame("FRA", france, Country.getCountryFromAlpha3(bytes, 6, 3));
+      assertSame("250", france, Country.getCountryFromNumeric(bytes, 10, 3));
+      assertNull("FR,", Country.getCountryFromAlpha2(bytes, 3, 3));
+      assertNull("F\u00e9", Country.getCountryFromAlpha2(bytes, 14, 2));
+      assertNull("250,", Country.getCountryFromNumeric(bytes, 10, 4));
+
+      ByteBuffer buffer = ByteBuffer.wrap(bytes);
+      assertSame("FR", france, Country.getCountryFromAlpha2(buffer, 3, 2));
+      assertSame("FRA", france, Country.getCountryFromAlpha3(buffer, 6, 3));
+      assertSame("250", france, Country.getCountryFromNumeric(buffer, 10, 3));
+      assertEquals("Buffer position", 0, buffer.position());
+
+      ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+      direct.put(bytes);
+      assertSame("FR", france, Country.getCountryFromAlpha2(direct, 3, 2));
+      assertSame("FRA", france, Country.getCountryFromAlpha3(direct, 6, 3));
+      assertSame("250", france, Country.getCountryFromNumeric(direct, 10, 3));
+      assertNull("F\u00e9", Country.getCountryFromAlpha2(direct, 14, 2));
+      assertEquals("Buffer position", bytes.length, direct.position());
+   }
+
+   /**
+    * Test of the trigram index with characters above U+8000 and with too many names.
+    */
+   @Test
+   public void testTrigramIndexLimits() {
+      System.out.println("CountryTest : testTrigramIndexLimits");
+      Country country = Country.getCountryFromAlpha2("FR");
+      Map<String, Country> names = new HashMap<>(Country.getCache().getCountryByName());
+      names.put("\u8000\u8001\u8002\u8003\u8004", country);
+      names.put("\uAC00\uAC01\uAC02\uAC03\uAC04", country);
+      names.put("abcde", country);
+      TrigramIndex index = new TrigramIndex(names);
+      FuzzyMatch match = index.find("\u8009\u8001\u8002\u8003\u8004", 1);
+      assertNotNull("CJK name", match);
+      assertEquals("CJK name", "\u8000\u8001\u8002\u8003\u8004", match.getMatchedName());
+      match = index.find("\uAC09\uAC01\uAC02\uAC03\uAC04", 1);
+      assertNotNull("Hangul name", match);
+      assertEquals("Hangul name", "\uAC00\uAC01\uAC02\uAC03\uAC04", match.getMatchedName());
+      assertEquals("Latin name", "abcde", index.find("abcdf", 1).getMatchedName());
+      assertSame("Dataset name", country, index.find("Frence", 1).getCountry());
+
+      names.clear();
+      for (int i = 0; i <= TrigramIndex.MAX_NAMES; i++) {
+         names.put("n" + i, country);
+      }
+      try {
+         new TrigramIndex(names);
+         fail("Too many names");
+      } catch (IllegalArgumentException e) {
+      }
+   }
+
+   /**
+    * Test that the trigram index finds the closest name even if many names share more trigrams with the searched name,
+    * or if the closest name shares no trigram with it.
+    */
+   @Test
+   public void testTrigramIndexExhaustive() {
+      System.out.println("CountryTest : testTrigramIndexExhaustive");
+      Country country = Country.getCountryFromAlpha2("FR");
+      Map<String, Country> names = new HashMap<>();
+      for (char c = 'a'; c <= 'p'; c++) {
+         names.put("abcdefghqr" + c, country);
+      }
+      names.put("xbcdefgy", country);
+      names.put("cd", country);
+      TrigramIndex index = new TrigramIndex(names);
+      FuzzyMatch match = index.find("abcdefgh", 3);
+      assertNotNull("Closest name", match);
+      assertEquals("Closest name", "xbcdefgy", match.getMatchedName());
+      assertEquals("Closest name distance", 2, match.getDistance());
+      match = index.find("ab", 2);
+      assertNotNull("No shared trigram", match);
+      assertEquals("No shared trigram", "cd", match.getMatchedName());
+
+      // the same distance as an exhaustive search
+      index = Country.getCache().getTrigramIndex();
+      String[] queries = {"Frence", "Untied States", "iran", "Korea Repub", "viet", "Chinaa", "Marocco"};
+      for (int i = 0; i < queries.length; i++) {
+         String query = NameNormalizer.normalize(queries[i]);
+         int best = Integer.MAX_VALUE;
+         Iterator<String> it = Country.getCache().getCountryByName().keySet().iterator();
+         while (it.hasNext()) {
+            String name = NameNormalizer.normalize(it.next());
+            best = Math.min(best, TrigramIndex.distance(query, name, Math.max(query.length(), name.length())));
+         }
+         for (int maxDistance = 0; maxDistance <= 4; maxDistance++) {
+            match = index.find(queries[i], maxDistance);
+            if (best <= maxDistance) {
+               assertNotNull(queries[i] + " within " + maxDistance, match);
+               assertEquals(queries[i] + " within " + maxDistance, best, match.getDistance());
+            } else {
+               assertNull(queries[i] + " within " + maxDistance, match);
+            }
+         }
+      }
+   }
+
+   /**
+    * Test of getCountryFromNormalizedName method, of class Country.
+    */
+   @Test
+   public void testNormalizedNames() {
+      System.out.println("CountryTest : testNormalizedNames");
+      Country korea = Country.getCountryFromName("Korea, Republic of");
+      assertNotNull("Korea, Republic of must exist", korea);
+      assertSame("Korea, Republic of", korea, Country.getCountryFromNormalizedName("Korea, Republic of"));
+      assertSame("korea republic of", korea, Country.getCountryFromNormalizedName("korea republic of"));
+      assertSame("  KOREA ,REPUBLIC   OF. ", korea, Country.getCountryFromNormalizedName("  KOREA ,REPUBLIC   OF. "));
+      assertSame("republic of korea", korea, Country.getCountryFromNormalizedName("republic-of-korea"));
+      assertSame("Vietnam", Country.getCountryFromAlpha2("VN"), Country.getCountryFromNormalizedName("VIETNAM"));
+      assertSame("Viet Nam", Country.getCountryFromAlpha2("VN"), Country.getCountryFromNormalizedName("Viêt Nam"));
+      assertSame("Iran", Country.getCountryFromAlpha2("IR"), Country.getCountryFromNormalizedName("íran (islamic republic of)"));
+      assertSame("Turkey", Country.getCountryFromAlpha2("TR"), Country.getCountryFromNormalizedName(new StringBuilder("TÜRKEY")));
+      assertSame("Vi\u1EC7t Nam", Country.getCountryFromAlpha2("VN"), Country.getCountryFromNormalizedName("Vi\u1EC7t Nam"));
+      assertSame("Decomposed Viet Nam", Country.getCountryFromAlpha2("VN"), Country.getCountryFromNormalizedName("Vie\u0323\u0302t Nam"));
+      assertEquals("Decomposed name", "cote divoire", NameNormalizer.normalize("Co\u0302te d'Ivoire"));
+      assertEquals("Composed name", "cote divoire", NameNormalizer.normalize("C\u00f4te d'Ivoire"));
+      assertEquals("Latin Extended Additional", "viet nam", NameNormalizer.normalize("VI\u1EC6T NAM"));
+      assertEquals("Cyrillic", "\u0438\u0438", NameNormalizer.normalize("\u0418\u0419"));
+      assertEquals("Greek", "\u03b5\u03bb\u03bb\u03b1\u03b4\u03b1", NameNormalizer.normalize("\u0395\u03bb\u03bb\u03ac\u03b4\u03b1"));
+      assertEquals("Greek Extended", "\u03b5\u03bb \u03b1\u03c2", NameNormalizer.normalize("\u1F19\u03bb\u0387\u1F71\u03c2"));
+      assertEquals("Other scripts", "\u0622", NameNormalizer.normalize("\u0622"));
+      assertNull("Korea", Country.getCountryFromNormalizedName("Korea"));
+      assertNull("empty name", Country.getCountryFromNormalizedName(" ,. "));
+      assertNull("null name", Country.getCountryFromNormalizedName(null));
+   }
+
+   /**
+    * Test of findByPrefix method, of class Country.
+    */
+   @Test
+   public void testFindByPrefix() {
+      System.out.println("CountryTest : testFindByPrefix");
+      List<Country> list = Country.findByPrefix("uni", 10);
+      assertEquals("uni countries", 3, list.size());
+      assertEquals("uni first country", "AE", list.get(0).getAlpha2());
+      assertEquals("uni second country", "GB", list.get(1).getAlpha2());
+      assertEquals("uni third country", "US", list.get(2).getAlpha2());
+
+      list = Country.findByPrefix("UNITED  STATES", 10);
+      assertEquals("UNITED  STATES countries", 1, list.size());
+      assertEquals("UNITED  STATES country", "US", list.get(0).getAlpha2());
+
+      list = Country.findByPrefix("s", 3);
+      assertEquals("s countries", 3, list.size());
+      assertEquals("s first country", "Saint Vincent and the Grenadines", list.get(0).getName());
+
+      list = Country.findByPrefix("Ir", 10);
+      assertEquals("Ir countries", 3, list.size());
+      assertEquals("Ir first country", "IR", list.get(0).getAlpha2());
+      assertEquals("Ir second country", "IQ", list.get(1).getAlpha2());
+      assertEquals("Ir third country", "IE", list.get(2).getAlpha2());
+
+      assertTrue("xyz countries", Country.findByPrefix("xyz", 10).isEmpty());
+      assertTrue("limit 0", Country.findByPrefix("a", 0).isEmpty());
+   }
+
+   /**
+    * Test of getCountryFromFuzzyName method, of class Country.
+    */
+   @Test
+   public void testFuzzyNames() {
+      System.out.println("CountryTest : testFuzzyNames");
+      FuzzyMatch match = Country.getCountryFromFuzzyName("Argentinia");
+      assertNotNull("Argentinia must match", match);
+      assertEquals("Argentinia", "AR", match.getCountry().getAlpha2());
+      assertEquals("Argentinia distance", 1, match.getDistance());
+      assertEquals("Argentinia score", 0.9, match.getScore(), 0.001);
+
+      match = Country.getCountryFromFuzzyName("Phillipines");
+      assertNotNull("Phillipines must match", match);
+      assertEquals("Phillipines", "PH", match.getCountry().getAlpha2());
+      assertEquals("Phillipines distance", 2, match.getDistance());
+
+      match = Country.getCountryFromFuzzyName("united kingdon");
+      assertNotNull("united kingdon must match", match);
+      assertEquals("united kingdon", "GB", match.getCountry().getAlpha2());
+      assertEquals("united kingdon name", "united kingdom", match.getMatchedName());
+
+      match = Country.getCountryFromFuzzyName("FRANCE");
+      assertNotNull("FRANCE must match", match);
+      assertEquals("FRANCE distance", 0, match.getDistance());
+      assertEquals("FRANCE score", 1, match.getScore(), 0.001);
+
+      assertNull("Atlantis must not match", Country.getCountryFromFuzzyName("Atlantis"));
+      assertNull("Argentinia with distance 0", Country.getCountryFromFuzzyName("Argentinia", 0));
+      assertNull("null name", Country.getCountryFromFuzzyName(null));
+   }
+
+   /**
+    * Test of the bounded edit distance, of class TrigramIndex.
+    */
+   @Test
+   public void testEditDistance() {
+      System.out.println("CountryTest : testEditDistance");
+      assertEquals("kitten sitting", 3, TrigramIndex.distance("kitten", "sitting", 5));
+      assertEquals("kitten sitting bounded", 3, TrigramIndex.distance("kitten", "sitting", 2));
+      assertEquals("same", 0, TrigramIndex.distance("france", "france", 0));
+      assertEquals("empty", 4, TrigramIndex.distance("", "iran", 4));
+      assertEquals("transposition", 2, TrigramIndex.distance("iarn", "iran", 3));
+   }
+
+   /**
+    * Test of the bulk resolution methods, of class Country.
+    */
+   @Test
+   public void testBulkResolution() {
+      System.out.println("CountryTest : testBulkResolution");
+      String[] alpha2 = {"FR", "XX", "DE", null, "fr", "US"};
+      Country[] out = new Country[alpha2.length];
+      Country.resolveAlpha2(alpha2, out);
+      for (int i = 0; i < alpha2.length; i++) {
+         assertSame("alpha-2 " + alpha2[i], Country.getCountryFromAlpha2(alpha2[i]), out[i]);
+      }
+      String[] alpha3 = {"FRA", "XXX", "DEU"};
+      Country.resolveAlpha3(alpha3, out);
+      assertSame("FRA", Country.getCountryFromAlpha2("FR"), out[0]);
+      assertNull("XXX", out[1]);
+      String[] names = {"France", "Germany", "United Kingdom", "Atlantis"};
+      Country.resolveNames(names, out);
+      assertSame("United Kingdom", Country.getCountryFromAlpha2("GB"), out[2]);
+      assertNull("Atlantis", out[3]);
+      Country.resolveNumeric(new String[]{"250", "25a", "004"}, out);
+      assertSame("250", Country.getCountryFromAlpha2("FR"), out[0]);
+      assertNull("25a", out[1]);
+      assertSame("004", Country.getCountryFromAlpha2("AF"), out[2]);
+      Country.resolveNumeric(new int[]{276, 0, 1000}, out);
+      assertSame("276", Country.getCountryFromAlpha2("DE"), out[0]);
+      assertNull("0", out[1]);
+      assertNull("1000", out[2]);
+      try {
+         Country.resolveAlpha2(alpha2, new Country[2]);
+         fail("The output array is too small");
+      } catch (IllegalArgumentException e) {
+      }
+
+      // large array, resolved in parallel
+      String[] codes = new String[BulkResolver.PARALLEL_THRESHOLD * 2 + 17];
+      for (int i = 0; i < codes.length; i++) {
+         codes[i] = alpha2[i % alpha2.length];
+      }
+      out = new Country[codes.length];
+      BulkResolver.resolveParallel(Country.getCache(), CodeType.ALPHA2, codes, out);
+      for (int i = 0; i < codes.length; i++) {
+         assertSame("alpha-2 " + codes[i], Country.getCountryFromAlpha2(codes[i]), out[i]);
+      }
+   }
+
+   /**
+    * Check the sorted views of the countries.
+    */
+   @Test
+   public void testSortedViews() {
+      System.out.println("CountryTest : testSortedViews");
+      CodeType[] orders = CodeType.values();
+      for (int i = 0; i < orders.length; i++) {
+         List<Country> countries = Country.getCountries(orders[i]);
+         assertSame("The view must not be created again", countries, Country.getCountries(orders[i]));
+         for (int j = 1; j < countries.size(); j++) {
+            assertNotSame("Duplicate " + countries.get(j).getName(), countries.get(j - 1), countries.get(j));
+            assertTrue("Order " + orders[i], orders[i].compare(countries.get(j - 1), countries.get(j)) < 0);
+         }
+         try {
+            countries.add(countries.get(0));
+            fail("The view must be unmodifiable");
+         } catch (UnsupportedOperationException e) {
+         }
+      }
+      Country country = Country.getCountryFromAlpha2("FR");
+      List<Country> byName = country.listCountries();
+      assertSame("listCountries", Country.getCountries(CodeType.NAME), byName);
+      assertEquals("Each country appears once", new HashSet<>(Country.getCache().getCountryByName().values()).size(),
+         byName.size());
+
+      // the views are created again when a country is added
+      Country custom = new Country("AAA Sorted View Country", "ZV", "ZVV", 994);
+      List<Country> newByName = country.listCountries();
+      assertNotSame("The view must be created again", byName, newByName);
+      assertSame("First country", custom, newByName.get(0));
+      assertEquals("Size", byName.size() + 1, newByName.size());
+   }
+
+   /**
+    * Check the formatting of the countries.
+    */
+   @Test
+   public void testFormatting() {
+      System.out.println("CountryTest : testFormatting");
+      Country country = Country.getCountryFromAlpha2("AF");
+      assertEquals("Numeric", "004", country.getFormattedNumericCode());
+      assertSame("Numeric must be precomputed", country.getFormattedNumericCode(), country.getFormattedNumericCode());
+      assertEquals("ISO 3166-2", "ISO 3166-2:AF", country.getISO31662());
+      assertSame("ISO 3166-2 must be precomputed", country.getISO31662(), country.getISO31662());
+      assertEquals("Name", country.getName(), country.getCode(CodeType.NAME));
+      assertEquals("Alpha3", "AFG", country.getCode(CodeType.ALPHA3));
+
+      StringBuilder builder = new StringBuilder();
+      country.appendTo(builder, CodeType.ALPHA2).append(';');
+      country.appendTo(builder, CodeType.ALPHA3).append(';');
+      country.appendTo(builder, CodeType.NUMERIC).append(';');
+      country.appendTo(builder, CodeType.ISO31662);
+      assertEquals("StringBuilder", "AF;AFG;004;ISO 3166-2:AF", builder.toString());
+      assertSame("ISO 3166-2 code", country.getISO31662(), country.getCode(CodeType.ISO31662));
+      assertSame("ISO 3166-2 lookup", country, CodeType.ISO31662.getCountry("ISO 3166-2:AF"));
+      assertNull("ISO 3166-2 without prefix", CodeType.ISO31662.getCountry("AF"));
+
+      Country cote = new Country("C\u00f4te Formatting", null, "ZF", "ZFT", 990, false);
+      ByteBuffer buffer = ByteBuffer.allocate(64);
+      int length = country.writeTo(buffer, CodeType.NUMERIC);
+      length += cote.writeTo(buffer, CodeType.NAME);
+      length += cote.writeTo(buffer, CodeType.ISO31662);
+      assertEquals("Position", length, buffer.position());
+      assertEquals("ByteBuffer", "004" + cote.getName() + "ISO 3166-2:ZF",
+         new String(buffer.array(), 0, length, StandardCharsets.UTF_8));
+   }
 }
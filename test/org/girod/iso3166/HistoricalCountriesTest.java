@@ -0,0 +1,197 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.net.URL;
+import java.time.LocalDate;
+import java.util.List;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the time-aware lookups of the ISO 3166-3 historical countries.
+ *
+ * @since 0.3
+ */
+public class HistoricalCountriesTest {
+
+   public HistoricalCountriesTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check the validity of the historical XML file.
+    */
+   @Test
+   public void testFile() throws Exception {
+      System.out.println("HistoricalCountriesTest : testFile");
+      SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+      Schema schema = schemaFactory.newSchema(Country.class.getResource("historical.xsd"));
+      URL url = Country.class.getResource("historical.xml");
+      schema.newValidator().validate(new StreamSource(url.toString()));
+      List<Country> countries = Country.getHistoricalCountries();
+      assertEquals("Historical countries", 31, countries.size());
+   }
+
+   /**
+    * Check the lookups of codes at different dates.
+    */
+   @Test
+   public void testLookups() {
+      System.out.println("HistoricalCountriesTest : testLookups");
+      LocalDate date1980 = LocalDate.of(1980, 1, 1);
+      LocalDate date2005 = LocalDate.of(2005, 1, 1);
+      Country country = Country.getCountryFromAlpha2("CS", date1980);
+      assertNotNull("CS in 1980", country);
+      assertEquals("CS in 1980", "Czechoslovakia", country.getName());
+      assertEquals("CS in 1980", "CSK", country.getAlpha3());
+      country = Country.getCountryFromAlpha2("CS", date2005);
+      assertNotNull("CS in 2005", country);
+      assertEquals("CS in 2005", "Serbia and Montenegro", country.getName());
+      assertNull("CS today", Country.getCountryFromAlpha2("CS", LocalDate.now()));
+      assertNull("CS without date", Country.getCountryFromAlpha2("CS", null));
+      assertNull("CS in 1980", Country.getCountryFromAlpha2("CS"));
+
+      country = Country.getCountryFromAlpha3("YUG", LocalDate.of(1990, 1, 1));
+      assertNotNull("YUG in 1990", country);
+      assertEquals("YUG in 1990", "YU", country.getAlpha2());
+      assertNull("YUG in 2004", Country.getCountryFromAlpha3("YUG", LocalDate.of(2004, 1, 1)));
+      country = Country.getCountryFromNumeric(891, LocalDate.of(2004, 1, 1));
+      assertNotNull("891 in 2004", country);
+      assertEquals("891 in 2004", "SCG", country.getAlpha3());
+      // the withdrawal date is exclusive
+      assertEquals("DD", "DD", Country.getCountryFromAlpha2("DD", LocalDate.of(1990, 10, 29)).getAlpha2());
+      assertNull("DD", Country.getCountryFromAlpha2("DD", LocalDate.of(1990, 10, 30)));
+
+      // the current countries are returned at any date
+      assertSame("FR in 1980", Country.getCountryFromAlpha2("FR"), Country.getCountryFromAlpha2("FR", date1980));
+      assertSame("DEU in 1980", Country.getCountryFromAlpha3("DEU"), Country.getCountryFromAlpha3("DEU", date1980));
+      assertSame("250 in 1980", Country.getCountryFromNumeric(250), Country.getCountryFromNumeric(250, date1980));
+      assertNull("Invalid code", Country.getCountryFromAlpha2("C?", date1980));
+
+      // the codes assigned after 1974 are not found before their assignment
+      LocalDate date1990 = LocalDate.of(1990, 1, 1);
+      assertNull("RS in 1990", Country.getCountryFromAlpha2("RS", date1990));
+      assertNull("SRB in 1990", Country.getCountryFromAlpha3("SRB", date1990));
+      assertNull("688 in 1990", Country.getCountryFromNumeric(688, date1990));
+      assertNull("RS the day before", Country.getCountryFromAlpha2("RS", LocalDate.of(2006, 9, 25)));
+      assertSame("RS", Country.getCountryFromAlpha2("RS"), Country.getCountryFromAlpha2("RS", LocalDate.of(2006, 9, 26)));
+      assertNull("276 in 1985", Country.getCountryFromNumeric(276, LocalDate.of(1985, 1, 1)));
+      assertSame("DE in 1985", Country.getCountryFromAlpha2("DE"), Country.getCountryFromAlpha2("DE", LocalDate.of(1985, 1, 1)));
+      assertSame("276 in 1991", Country.getCountryFromAlpha2("DE"), Country.getCountryFromNumeric(276, LocalDate.of(1991, 1, 1)));
+
+      // ISO 3166-3 codes withdrawn at a known year are valid until the end of the year
+      assertEquals("ZR in 1997", "Zaire", Country.getCountryFromAlpha2("ZR", LocalDate.of(1997, 12, 31)).getName());
+      assertNull("ZR in 1998", Country.getCountryFromAlpha2("ZR", LocalDate.of(1998, 1, 1)));
+      assertEquals("BUR in 1980", "BU", Country.getCountryFromAlpha3("BUR", date1980).getAlpha2());
+      assertEquals("626 in 2000", "TP", Country.getCountryFromNumeric(626, LocalDate.of(2000, 1, 1)).getAlpha2());
+      assertEquals("RH in 1975", "RHO", Country.getCountryFromAlpha2("RH", LocalDate.of(1975, 1, 1)).getAlpha3());
+      assertEquals("SKM in 1975", "Sikkim", Country.getCountryFromAlpha3("SKM", LocalDate.of(1975, 12, 31)).getName());
+      assertNull("SKM in 1976", Country.getCountryFromAlpha3("SKM", LocalDate.of(1976, 1, 1)));
+      assertEquals("698 in 1975", "SK", Country.getCountryFromNumeric(698, LocalDate.of(1975, 1, 1)).getAlpha2());
+      assertEquals("080 in 1978", "BQ", Country.getCountryFromNumeric(80, LocalDate.of(1978, 1, 1)).getAlpha2());
+
+      // the historical countries which had no numeric code
+      country = Country.getCountryFromAlpha2("VD", LocalDate.of(1976, 1, 1));
+      assertNotNull("VD in 1976", country);
+      assertEquals("VD in 1976", "VDR", country.getAlpha3());
+      assertEquals("VD numeric", -1, country.getNumericCode());
+      assertEquals("VD numeric", "", country.getFormattedNumericCode());
+      assertNull("VD in 1978", Country.getCountryFromAlpha2("VD", LocalDate.of(1978, 1, 1)));
+      assertSame("704 in 1976", Country.getCountryFromAlpha2("VN"), Country.getCountryFromNumeric(704, LocalDate.of(1976, 1, 1)));
+      assertEquals("ATF in 1979", "FQ", Country.getCountryFromAlpha3("ATF", LocalDate.of(1979, 6, 1)).getAlpha2());
+   }
+
+   /**
+    * Check the resolution of arrays of codes at different dates.
+    */
+   @Test
+   public void testResolve() {
+      System.out.println("HistoricalCountriesTest : testResolve");
+      String[] codes = {"SU", "SU", "FR", "CS", null, "YU"};
+      LocalDate[] dates = {LocalDate.of(1985, 5, 1), LocalDate.of(1995, 5, 1), LocalDate.of(1970, 1, 1),
+         LocalDate.of(2005, 1, 1), LocalDate.of(2005, 1, 1), null};
+      Country[] out = new Country[codes.length];
+      Country.resolveAlpha2(codes, dates, out);
+      for (int i = 0; i < codes.length; i++) {
+         assertSame("Code " + i, Country.getCountryFromAlpha2(codes[i], dates[i]), out[i]);
+      }
+      assertEquals("SU in 1985", "SUN", out[0].getAlpha3());
+      assertNull("SU in 1995", out[1]);
+      assertEquals("CS in 2005", "SCG", out[3].getAlpha3());
+
+      String[] numerics = {"810", "891", "250"};
+      LocalDate[] numericDates = {LocalDate.of(1985, 5, 1), LocalDate.of(1985, 5, 1), LocalDate.of(1985, 5, 1)};
+      Country[] numericOut = new Country[numerics.length];
+      Country.resolveNumeric(numerics, numericDates, numericOut);
+      assertEquals("810 in 1985", "SU", numericOut[0].getAlpha2());
+      assertEquals("891 in 1985", "YU", numericOut[1].getAlpha2());
+      assertSame("250 in 1985", Country.getCountryFromNumeric(250), numericOut[2]);
+
+      // large arrays, resolved in parallel
+      String[] codes2 = new String[BulkResolver.PARALLEL_THRESHOLD * 2 + 17];
+      LocalDate[] dates2 = new LocalDate[codes2.length];
+      String[] alpha2 = {"SU", "RS", "FR", "CS", "ZR", "DE"};
+      for (int i = 0; i < codes2.length; i++) {
+         codes2[i] = alpha2[i % alpha2.length];
+         dates2[i] = i % 7 == 0 ? null : LocalDate.of(1970 + i % 50, 1, 1);
+      }
+      Country[] out2 = new Country[codes2.length];
+      BulkResolver.resolveParallel(Country.getCache(), HistoricalIndex.getIndex(), CodeType.ALPHA2, codes2, dates2, out2);
+      for (int i = 0; i < codes2.length; i++) {
+         assertSame("Code " + i, Country.getCountryFromAlpha2(codes2[i], dates2[i]), out2[i]);
+      }
+      try {
+         Country.resolveAlpha3(new String[]{"SUN", "YUG"}, new LocalDate[1], new Country[2]);
+         fail("The dates array is too small");
+      } catch (IllegalArgumentException e) {
+      }
+   }
+}
@@ -0,0 +1,129 @@
+/*
+MIT License
+
+Copyright (c) 2020 Hervé Girod
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the "Software"), to deal
+in the Software without restriction, including without limitation the rights
+to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+copies of the Software, and to permit persons to whom the Software is
+furnished to do so, subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in all
+copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+
+Alternatively if you have any questions about this project, you can visit
+the project website at the project page on https://github.com/hervegirod/countryiso3166
+ */
+package org.girod.iso3166;
+
+import java.net.URL;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import javax.xml.XMLConstants;
+import javax.xml.transform.stream.StreamSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Check the ISO 3166-2 subdivisions.
+ *
+ * @since 0.3
+ */
+public class SubdivisionTest {
+
+   public SubdivisionTest() {
+   }
+
+   @BeforeClass
+   public static void setUpClass() {
+   }
+
+   @AfterClass
+   public static void tearDownClass() {
+   }
+
+   @Before
+   public void setUp() {
+   }
+
+   @After
+   public void tearDown() {
+   }
+
+   /**
+    * Check the validity of the subdivisions XML file.
+    */
+   @Test
+   public void testFile() throws Exception {
+      System.out.println("SubdivisionTest : testFile");
+      SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
+      Schema schema = schemaFactory.newSchema(Subdivision.class.getResource("subdivisions.xsd"));
+      URL url = Subdivision.class.getResource("subdivisions.xml");
+      schema.newValidator().validate(new StreamSource(url.toString()));
+
+      List<Subdivision> subdivisions = new SubdivisionParser().parseSpec();
+      Set<String> codes = new HashSet<>();
+      Iterator<Subdivision> it = subdivisions.iterator();
+      while (it.hasNext()) {
+         Subdivision subdivision = it.next();
+         assertTrue("Duplicate code " + subdivision.getCode(), codes.add(subdivision.getCode()));
+         assertNotNull("Country of " + subdivision.getCode(), subdivision.getCountry());
+      }
+   }
+
+   /**
+    * Check the lookups of subdivisions.
+    */
+   @Test
+   public void testLookups() {
+      System.out.println("SubdivisionTest : testLookups");
+      Subdivision california = Subdivision.getSubdivision("US-CA");
+      assertNotNull("US-CA", california);
+      assertEquals("Name", "California", california.getName());
+      assertEquals("Category", "state", california.getCategory());
+      assertSame("Country", Country.getCountryFromAlpha2("US"), california.getCountry());
+      assertNull("US-XX", Subdivision.getSubdivision("US-XX"));
+      assertEquals("Corse", "Corse", Subdivision.getSubdivision("FR-20R").getName());
+      Subdivision paris = Subdivision.getSubdivision("FR-75C");
+      assertEquals("Paris", "Paris", paris.getName());
+      assertEquals("Paris former code", "FR-75", paris.getFormerCode());
+      assertSame("FR-75", paris, Subdivision.getSubdivision("FR-75"));
+      assertNull("California former code", california.getFormerCode());
+      assertEquals("Corse-du-Sud", "Corse-du-Sud", Subdivision.getSubdivision("FR-2A").getName());
+      assertEquals("Mayotte", "overseas department", Subdivision.getSubdivision("FR-976").getCategory());
+
+      assertEquals("US", 57, Country.getCountryFromAlpha2("US").getSubdivisions().size());
+      assertEquals("CA", 13, Subdivision.getSubdivisions(Country.getCountryFromAlpha2("CA")).size());
+      assertEquals("DE", 16, Subdivision.getSubdivisions(Country.getCountryFromAlpha2("DE")).size());
+      assertEquals("FR", 116, Subdivision.getSubdivisions(Country.getCountryFromAlpha2("FR")).size());
+      assertTrue("AF", Country.getCountryFromAlpha2("AF").getSubdivisions().isEmpty());
+
+      Country france = Country.getCountryFromAlpha2("FR");
+      assertEquals("Ile de France", "FR-IDF", Subdivision.getSubdivisionFromName(france, "ile de france").getCode());
+      assertEquals("Provence", "FR-PAC", Subdivision.getSubdivisionFromName(france, "Provence Alpes Cote d'Azur").getCode());
+      assertEquals("Cotes d'Armor", "FR-22", Subdivision.getSubdivisionFromName(france, "cotes d'armor").getCode());
+      assertEquals("Paris by name", "FR-75C", Subdivision.getSubdivisionFromName(france, "PARIS").getCode());
+      assertNull("Null name", Subdivision.getSubdivisionFromName(france, null));
+      Country germany = Country.getCountryFromAlpha2("DE");
+      assertEquals("Thuringen", "DE-TH", Subdivision.getSubdivisionFromName(germany, "THURINGEN").getCode());
+      assertNull("Georgia", Subdivision.getSubdivisionFromName(germany, "Georgia"));
+   }
+}